@@ -41,6 +41,7 @@ public interface GameConfigurationContainer extends ConfigurationContainer {
     ConfigurationKey<Boolean> PREVENT_SPAWNING_MOBS = ConfigurationKey.of(Boolean.class, "prevent-spawning-mobs");
     ConfigurationKey<Boolean> SPAWNER_HOLOGRAMS = ConfigurationKey.of(Boolean.class, "spawner-holograms");
     ConfigurationKey<Boolean> SPAWNER_DISABLE_MERGE = ConfigurationKey.of(Boolean.class, "spawner-disable-merge");
+    ConfigurationKey<Boolean> SPAWNER_VIRTUAL_STACKS = ConfigurationKey.of(Boolean.class, "spawner-virtual-stacks");
     ConfigurationKey<Boolean> SPAWNER_COUNTDOWN_HOLOGRAM = ConfigurationKey.of(Boolean.class, "spawner-holograms-countdown");
     ConfigurationKey<Boolean> DAMAGE_WHEN_PLAYER_IS_NOT_IN_ARENA = ConfigurationKey.of(Boolean.class, "damage-when-player-is-not-in-arena");
     ConfigurationKey<Boolean> REMOVE_UNUSED_TARGET_BLOCKS = ConfigurationKey.of(Boolean.class, "remove-unused-target-blocks");
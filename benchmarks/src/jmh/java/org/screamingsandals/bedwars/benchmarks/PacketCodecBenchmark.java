@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.benchmarks;
+
+import org.screamingsandals.bedwars.game.remote.protocol.CompactDataInputStream;
+import org.screamingsandals.bedwars.game.remote.protocol.CompactDataOutputStream;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketId;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of every packet type with both codecs. Player-carrying packets are sized by {@code players}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PacketCodecBenchmark {
+    @Param({
+            "JOIN_GAME", "GAME_STATE", "GAME_LIST", "GAME_STATE_REQUEST", "GAME_LIST_REQUEST", "MINIGAME_SERVER_INFO",
+            "MINIGAME_SERVER_INFO_REQUEST", "GAME_STATE_SUBSCRIBE", "HELLO", "GAME_STATE_DELTA", "GAME_STATE_RESYNC_REQUEST"
+    })
+    public String packetType;
+
+    @Param({"0", "16", "256"})
+    public int players;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private PacketId packetId;
+    private Packet packet;
+    private byte[] encoded;
+    private ByteArrayOutputStream reusableBuffer;
+    private DataOutputStream reusableOutput;
+    private CompactDataOutputStream reusableCompactOutput;
+
+    @Setup
+    public void setup() throws IOException {
+        packetId = PacketId.valueOf(packetType);
+        packet = SamplePackets.create(packetId, players);
+        encoded = SamplePackets.encode(packet, compact);
+        reusableBuffer = new ByteArrayOutputStream(encoded.length);
+        reusableOutput = new DataOutputStream(reusableBuffer);
+        reusableCompactOutput = new CompactDataOutputStream(reusableBuffer);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return SamplePackets.encode(packet, compact);
+    }
+
+    /**
+     * Encoding into a reused buffer, as {@code ProtocolManager} does.
+     */
+    @Benchmark
+    public byte[] encodeReusingBuffer() throws IOException {
+        reusableBuffer.reset();
+        DataOutputStream out;
+        if (compact) {
+            reusableCompactOutput.resetTables();
+            out = reusableCompactOutput;
+        } else {
+            out = reusableOutput;
+        }
+        out.write(compact ? packetId.getId() | PacketId.COMPACT_FLAG : packetId.getId());
+        packet.write(out);
+        return reusableBuffer.toByteArray();
+    }
+
+    @Benchmark
+    public Packet decode() throws IOException {
+        var stream = new ByteArrayInputStream(encoded);
+        var header = stream.read();
+        var in = compact ? new CompactDataInputStream(stream) : new DataInputStream(stream);
+        //noinspection ConstantConditions
+        return PacketId.byId(header & ~PacketId.COMPACT_FLAG).read(in);
+    }
+
+    @Benchmark
+    public PacketId lookupByClass() {
+        return PacketId.byClass(packet.getClass());
+    }
+}
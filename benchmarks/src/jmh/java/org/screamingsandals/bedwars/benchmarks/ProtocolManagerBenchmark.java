@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketId;
+import org.screamingsandals.bedwars.game.remote.protocol.ProtocolManager;
+import org.screamingsandals.bedwars.game.remote.protocol.messaging.Messenger;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStatePacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.HelloPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full path through {@link ProtocolManager}: packet id lookup, pooled encoding, codec selection and dispatch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProtocolManagerBenchmark {
+    @Param({"0", "16", "256"})
+    public int players;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private BenchmarkProtocolManager protocolManager;
+    private GameStatePacket packet;
+    private byte[] encoded;
+
+    @Setup
+    public void setup(@NotNull Blackhole blackhole) throws Exception {
+        protocolManager = new BenchmarkProtocolManager(blackhole);
+        // lets the manager pick the compact codec when talking to the lobby
+        protocolManager.receive(SamplePackets.encode(new HelloPacket(SamplePackets.LOBBY, compact ? ProtocolManager.CODEC_COMPACT : 0, false), false));
+        packet = SamplePackets.gameState(players, 1);
+        encoded = SamplePackets.encode(packet, compact);
+    }
+
+    @Benchmark
+    public void processIncoming() throws Exception {
+        protocolManager.receive(encoded);
+    }
+
+    @Benchmark
+    public void sendPacket() throws IOException {
+        protocolManager.sendPacket(SamplePackets.LOBBY, packet);
+    }
+
+    @Benchmark
+    public void broadcastPacket() throws IOException {
+        protocolManager.broadcastPacket(packet);
+    }
+
+    private static class BenchmarkProtocolManager extends ProtocolManager {
+        private final @NotNull Blackhole blackhole;
+        private final @NotNull Messenger messenger;
+
+        private BenchmarkProtocolManager(@NotNull Blackhole blackhole) {
+            this.blackhole = blackhole;
+            this.messenger = new Messenger() {
+                @Override
+                public void sendPacket(@NotNull String server, byte @NotNull [] payload) {
+                    blackhole.consume(payload);
+                }
+
+                @Override
+                public void broadcastPacket(byte @NotNull [] payload) {
+                    blackhole.consume(payload);
+                }
+            };
+        }
+
+        private void receive(byte @NotNull [] payload) throws Exception {
+            processIncoming(payload);
+        }
+
+        @Override
+        protected void receivePacket0(@NotNull Packet packet) {
+            blackhole.consume(packet);
+        }
+
+        @Override
+        protected @NotNull Messenger getMessenger() {
+            return messenger;
+        }
+    }
+}
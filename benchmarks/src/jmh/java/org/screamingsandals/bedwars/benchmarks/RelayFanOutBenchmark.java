@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketUtils;
+import org.screamingsandals.bedwars.game.remote.protocol.sockets.Action;
+import org.screamingsandals.bedwars.game.remote.protocol.sockets.SelectorSocketServer;
+import org.screamingsandals.bedwars.game.remote.protocol.sockets.SimpleSocketServer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcast latency through the socket relay: one frame is sent and the operation ends once every client has received it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RelayFanOutBenchmark {
+    @Param({"threaded", "nio"})
+    public String mode;
+
+    @Param({"1", "8", "32"})
+    public int clients;
+
+    @Param({"16", "256"})
+    public int players;
+
+    private SelectorSocketServer selectorServer;
+    private final @NotNull List<@NotNull Socket> sockets = new ArrayList<>();
+    private DataOutputStream sender;
+    private byte[] frame;
+    private volatile CountDownLatch received;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        int port;
+        try (var probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        Thread serverThread;
+        if ("nio".equals(mode)) {
+            selectorServer = new SelectorSocketServer(port);
+            serverThread = new Thread(() -> {
+                try {
+                    selectorServer.run();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "BedWars Relay");
+        } else {
+            // the threaded relay cannot be stopped while it waits in accept(), it dies with the forked JVM
+            serverThread = new Thread(() -> {
+                try {
+                    new SimpleSocketServer(port);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "BedWars Relay");
+        }
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        for (int i = 0; i < clients; i++) {
+            var socket = connect(port);
+            socket.setTcpNoDelay(true);
+            var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            PacketUtils.writeStandardUTF(out, "bench-" + i);
+            out.flush();
+            sockets.add(socket);
+            if (i == 0) {
+                sender = out;
+            }
+
+            var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            var reader = new Thread(() -> {
+                try {
+                    while (true) {
+                        in.readFully(new byte[in.readInt()]);
+                        received.countDown();
+                    }
+                } catch (IOException ignored) {
+                    // socket closed in tear down
+                }
+            }, "BedWars Relay Client " + i);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        frame = SamplePackets.encode(SamplePackets.gameState(players, 1), false);
+
+        // the relay registers logins asynchronously, wait until a broadcast reaches everyone
+        do {
+            received = new CountDownLatch(clients);
+            broadcast();
+        } while (!received.await(100, TimeUnit.MILLISECONDS));
+        Thread.sleep(200); // drain the extra copies of earlier attempts
+    }
+
+    @Benchmark
+    public void broadcastToAll() throws Exception {
+        var latch = new CountDownLatch(clients);
+        received = latch;
+        broadcast();
+        latch.await();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (var socket : sockets) {
+            socket.close();
+        }
+        sockets.clear();
+        if (selectorServer != null) {
+            selectorServer.shutdown();
+            selectorServer = null;
+        }
+    }
+
+    private void broadcast() throws IOException {
+        sender.writeByte(Action.BROADCAST_PACKET.getId());
+        sender.writeInt(frame.length);
+        sender.write(frame);
+        sender.flush();
+    }
+
+    private static @NotNull Socket connect(int port) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return new Socket("localhost", port);
+            } catch (IOException e) {
+                if (attempt >= 50) {
+                    throw e;
+                }
+                Thread.sleep(20); // relay thread is still binding
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.screamingsandals.bedwars.game.remote.protocol.CompactDataOutputStream;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketId;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateDeltaPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStatePacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateResyncRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateSubscribePacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.HelloPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.JoinGamePacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.MinigameServerInfoPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.MinigameServerInfoRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic packets resembling what a network of game servers exchanges.
+ */
+public final class SamplePackets {
+    public static final @NotNull String SERVER = "bedwars-1";
+    public static final @NotNull String LOBBY = "lobby-1";
+
+    private SamplePackets() {
+    }
+
+    public static @NotNull GameStatePacket gameState(int players, long seed) {
+        var random = new Random(seed);
+        var entries = new ArrayList<GameStatePacket.PlayerEntry>(players);
+        for (var i = 0; i < players; i++) {
+            entries.add(new GameStatePacket.PlayerEntry(new UUID(random.nextLong(), random.nextLong()), "Player" + random.nextInt(100000)));
+        }
+
+        return GameStatePacket.builder()
+                .server(SERVER)
+                .uuid(new UUID(seed, seed))
+                .name("arena" + seed)
+                .displayName("{\"text\":\"Arena " + seed + "\",\"color\":\"gold\"}")
+                .onlinePlayers(players)
+                .alivePlayers(players)
+                .minPlayers(2)
+                .maxPlayers(Math.max(players, 16))
+                .teams(4)
+                .aliveTeams(4)
+                .state("RUNNING")
+                .players(entries)
+                .elapsed(125)
+                .maxTime(3600)
+                .isTimeMoving(true)
+                .build();
+    }
+
+    public static @NotNull Packet create(@NotNull PacketId packetId, int players) {
+        switch (packetId) {
+            case JOIN_GAME:
+                var party = new ArrayList<UUID>();
+                for (var i = 0; i < Math.min(players, 8); i++) {
+                    party.add(new UUID(i, i));
+                }
+                return new JoinGamePacket(new UUID(1, 1), "arena1", LOBBY, "party", party, new UUID(0, 0), "Parties");
+            case GAME_STATE:
+                return gameState(players, 1);
+            case GAME_LIST:
+                var games = new ArrayList<GameListPacket.GameEntry>();
+                for (var i = 0; i < Math.max(players, 1); i++) {
+                    games.add(new GameListPacket.GameEntry(new UUID(i, i), "arena" + i, "arena" + i));
+                }
+                return new GameListPacket(SERVER, games);
+            case GAME_STATE_REQUEST:
+                return new GameStateRequestPacket(LOBBY, "arena1");
+            case GAME_LIST_REQUEST:
+                return new GameListRequestPacket(LOBBY);
+            case MINIGAME_SERVER_INFO:
+                return new MinigameServerInfoPacket(SERVER, "ScreamingBedWars", "0.3.0/custom");
+            case MINIGAME_SERVER_INFO_REQUEST:
+                return new MinigameServerInfoRequestPacket(LOBBY);
+            case GAME_STATE_SUBSCRIBE:
+                return new GameStateSubscribePacket(LOBBY, "arena1", true);
+            case HELLO:
+                return new HelloPacket(SERVER);
+            case GAME_STATE_DELTA:
+                // a few players joined and left since the previous state
+                var previous = gameState(players, 1);
+                var current = gameState(players, 1);
+                var currentPlayers = new ArrayList<>(current.getPlayers());
+                if (!currentPlayers.isEmpty()) {
+                    currentPlayers.remove(0);
+                }
+                currentPlayers.add(new GameStatePacket.PlayerEntry(new UUID(-1, -1), "Newcomer"));
+                current = GameStatePacket.builder()
+                        .server(current.getServer())
+                        .uuid(current.getUuid())
+                        .name(current.getName())
+                        .displayName(current.getDisplayName())
+                        .onlinePlayers(currentPlayers.size())
+                        .alivePlayers(currentPlayers.size())
+                        .minPlayers(current.getMinPlayers())
+                        .maxPlayers(current.getMaxPlayers())
+                        .teams(current.getTeams())
+                        .aliveTeams(current.getAliveTeams())
+                        .state(current.getState())
+                        .players(currentPlayers)
+                        .elapsed(current.getElapsed())
+                        .maxTime(current.getMaxTime())
+                        .isTimeMoving(current.isTimeMoving())
+                        .build();
+                //noinspection ConstantConditions
+                return GameStateDeltaPacket.between(1, 2, previous, current, false, 0);
+            case GAME_STATE_RESYNC_REQUEST:
+                return new GameStateResyncRequestPacket(LOBBY, new UUID(1, 1));
+            default:
+                throw new IllegalArgumentException("No sample for " + packetId);
+        }
+    }
+
+    /**
+     * Encodes the packet the same way {@code ProtocolManager} does.
+     */
+    public static byte @NotNull [] encode(@NotNull Packet packet, boolean compact) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var dout = compact ? new CompactDataOutputStream(out) : new DataOutputStream(out);
+        var packetId = PacketId.byClass(packet.getClass());
+        if (packetId == null) {
+            throw new IllegalArgumentException("Unknown packet " + packet.getClass().getName());
+        }
+        dout.write(compact ? packetId.getId() | PacketId.COMPACT_FLAG : packetId.getId());
+        packet.write(dout);
+        return out.toByteArray();
+    }
+}
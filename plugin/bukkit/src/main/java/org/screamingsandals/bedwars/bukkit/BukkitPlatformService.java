@@ -39,6 +39,7 @@ import org.screamingsandals.bedwars.PlatformService;
 import org.screamingsandals.bedwars.api.game.GameStatus;
 import org.screamingsandals.bedwars.bukkit.hooks.BukkitBStatsMetrics;
 import org.screamingsandals.bedwars.bukkit.hooks.PerWorldInventoryCompatibilityFix;
+import org.screamingsandals.bedwars.bukkit.listener.StatisticsPreLoginListener;
 import org.screamingsandals.bedwars.config.MainConfig;
 import org.screamingsandals.bedwars.game.GameImpl;
 import org.screamingsandals.bedwars.game.GameManagerImpl;
@@ -70,7 +71,8 @@ import java.util.function.Consumer;
 @Service
 @ServiceDependencies(initAnother = {
         PerWorldInventoryCompatibilityFix.class,
-        BukkitBStatsMetrics.class
+        BukkitBStatsMetrics.class,
+        StatisticsPreLoginListener.class
 })
 public class BukkitPlatformService extends PlatformService {
     @OnPostEnable
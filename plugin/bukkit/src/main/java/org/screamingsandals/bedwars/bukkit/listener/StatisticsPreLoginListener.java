@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.bukkit.listener;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.plugin.Plugin;
+import org.screamingsandals.bedwars.statistics.PlayerStatisticManager;
+import org.screamingsandals.lib.utils.annotations.Service;
+import org.screamingsandals.lib.utils.annotations.methods.OnPostEnable;
+
+@Service
+public class StatisticsPreLoginListener {
+    @OnPostEnable
+    public void register(Plugin plugin) {
+        if (!PlayerStatisticManager.isEnabled()) {
+            return;
+        }
+
+        plugin.getServer().getPluginManager().registerEvents(new Listener() {
+            // pre-login runs on its own thread, so the database read doesn't block the main thread during join
+            @EventHandler(priority = EventPriority.MONITOR)
+            public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+                if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+                    PlayerStatisticManager.getInstance().prefetchStatistic(event.getUniqueId());
+                }
+            }
+        }, plugin);
+    }
+}
@@ -37,6 +37,7 @@ import org.screamingsandals.bedwars.game.target.TargetBlockImpl;
 import org.screamingsandals.bedwars.inventories.ShopInventory;
 import org.screamingsandals.bedwars.lang.LangKeys;
 import org.screamingsandals.bedwars.lib.debug.Debug;
+import org.screamingsandals.bedwars.statistics.PlayerStatisticManager;
 import org.screamingsandals.bedwars.variants.VariantManagerImpl;
 import org.screamingsandals.lib.Server;
 import org.screamingsandals.lib.plugin.Plugin;
@@ -117,6 +118,7 @@ public class DumpCommand extends BaseCommand {
                                                                     "javaVersion", System.getProperty("java.version"),
                                                                     "os", System.getProperty("os.name")
                                                             ),
+                                                            "statisticsWriter", statisticsWriterToMap(),
                                                             "worlds", Worlds.getWorlds().stream().map(world -> Map.of(
                                                                     "name", world.getName(),
                                                                     "difficulty", world.getDifficulty().location().asString(),
@@ -402,6 +404,21 @@ public class DumpCommand extends BaseCommand {
         return map;
     }
 
+    public static Map<?, ?> statisticsWriterToMap() {
+        var writer = PlayerStatisticManager.isEnabled() ? PlayerStatisticManager.getInstance().getDatabaseWriter() : null;
+        if (writer == null) {
+            return Map.of("enabled", false);
+        }
+        return Map.of(
+                "enabled", true,
+                "queueDepth", writer.getQueueDepth(),
+                "flushedRecords", writer.getFlushedRecords(),
+                "failedFlushes", writer.getFailedFlushes(),
+                "lastFlushMillis", writer.getLastFlushMillis(),
+                "maxFlushMillis", writer.getMaxFlushMillis()
+        );
+    }
+
     public static Map<?, ?> locationToMap(Location location) {
         return nullValuesAllowingMap(
           "world", location.getWorld().getName(),
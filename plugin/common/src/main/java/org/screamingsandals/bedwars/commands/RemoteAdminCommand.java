@@ -39,7 +39,6 @@ import org.screamingsandals.lib.sender.CommandSender;
 import org.screamingsandals.lib.spectator.Component;
 import org.screamingsandals.lib.utils.annotations.Service;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -90,10 +89,8 @@ public class RemoteAdminCommand extends BaseCommand {
                         return List.of();
                     }
 
-                    try {
-                        protocolManager.sendPacket(server, new GameListRequestPacket(BedWarsPlugin.getInstance().getServerName()));
-                    } catch (IOException ignored) { // It is just autocomplete
-                    }
+                    // It is just autocomplete, failures do not matter
+                    protocolManager.sendPacketAsync(server, new GameListRequestPacket(BedWarsPlugin.getInstance().getServerName()));
 
                     return List.of();
                 });
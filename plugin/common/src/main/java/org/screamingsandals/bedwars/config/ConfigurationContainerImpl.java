@@ -20,6 +20,7 @@
 package org.screamingsandals.bedwars.config;
 
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.jetbrains.annotations.Nullable;
 import org.screamingsandals.bedwars.api.config.Configuration;
@@ -33,14 +34,21 @@ import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.ConfigurationOptions;
 import org.spongepowered.configurate.serialize.SerializationException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class ConfigurationContainerImpl implements ConfigurationContainer {
+    // bumped on every change of any container or of the main config, so children also notice changes of their parents
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+    private static final Object NULL_VALUE = new Object();
 
     @Nullable
     @Getter
@@ -53,6 +61,18 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
     private final Map<List<String>, String[]> globalConfigKeys = new HashMap<>();
     @Getter
     private final Map<List<String>, String[]> descriptionKeys = new HashMap<>();
+    /**
+     * Effective values resolved by {@link #getOrDefault(ConfigurationKey, Object)}, keyed by the key instance.
+     * The map is never modified after being published, so it can be read from async tasks without locking.
+     */
+    private volatile CompiledSnapshot compiled = new CompiledSnapshot(-1, Map.of());
+
+    /**
+     * Drops compiled snapshots of all containers. Has to be called whenever the main configuration changes.
+     */
+    public static void invalidateSnapshots() {
+        GENERATION.incrementAndGet();
+    }
 
     @Override
     public <T> Optional<Configuration<T>> get(ConfigurationKey<T> keyObject) {
@@ -107,6 +127,7 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
         }
         if (!registered.containsKey(key)) {
             registered.put(key, typeToBeSaved);
+            invalidateSnapshots();
             return true;
         }
         return false;
@@ -126,6 +147,7 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
         }
         if (!registeredList.containsKey(key)) {
             registeredList.put(key, typeToBeSaved);
+            invalidateSnapshots();
             return true;
         }
         return false;
@@ -195,12 +217,14 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
     public <T> void register(ConfigurationKey<T> key, String... globalKey) {
         if (register(key)) {
             globalConfigKeys.put(key.getKey(), globalKey);
+            invalidateSnapshots();
         }
     }
 
     public <T> void register(ConfigurationListKey<T> key, String... globalKey) {
         if (register(key)) {
             globalConfigKeys.put(key.getKey(), globalKey);
+            invalidateSnapshots();
         }
     }
 
@@ -218,6 +242,7 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
         } catch (SerializationException e) {
             e.printStackTrace();
         }
+        invalidateSnapshots();
     }
 
     public <T> void updateList(List<String> key, Class<T> type, List<T> object) {
@@ -227,6 +252,7 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
         } catch (SerializationException e) {
             e.printStackTrace();
         }
+        invalidateSnapshots();
     }
 
     public boolean has(List<String> key) {
@@ -261,28 +287,56 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
         } catch (SerializationException e) {
             e.printStackTrace();
         }
+        invalidateSnapshots();
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T getOrDefault(ConfigurationKey<T> key, T defaultObject) {
-        var opt = get(key);
-        if (opt.isEmpty()) {
-            return defaultObject;
-        } else {
-            var o = opt.get().get();
-            return o != null ? o : defaultObject;
+        var snapshot = currentSnapshot();
+        var value = snapshot.values.get(key);
+        if (value == null) {
+            var opt = get(key);
+            value = compile(snapshot, key, opt.isEmpty() ? null : opt.get().get());
         }
+        return value != NULL_VALUE ? (T) value : defaultObject;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> List<T> getOrDefault(ConfigurationListKey<T> key, List<T> defaultValue) {
-        var opt = get(key);
-        if (opt.isEmpty()) {
-            return defaultValue;
-        } else {
-            var o = opt.get().get();
-            return o != null ? o : defaultValue;
+        var snapshot = currentSnapshot();
+        var value = snapshot.values.get(key);
+        if (value == null) {
+            var opt = get(key);
+            var list = opt.isEmpty() ? null : opt.get().get();
+            // the list is shared by all callers now
+            value = compile(snapshot, key, list != null ? Collections.unmodifiableList(new ArrayList<>(list)) : null);
         }
+        return value != NULL_VALUE ? (List<T>) value : defaultValue;
+    }
+
+    private CompiledSnapshot currentSnapshot() {
+        var snapshot = compiled;
+        var generation = GENERATION.get();
+        if (snapshot.generation != generation) {
+            snapshot = new CompiledSnapshot(generation, Map.of());
+            compiled = snapshot;
+        }
+        return snapshot;
+    }
+
+    private synchronized Object compile(CompiledSnapshot base, Object key, Object value) {
+        var stored = value != null ? value : NULL_VALUE;
+        var current = compiled;
+        // don't cache values resolved against an outdated configuration or keys created ad-hoc over and over again
+        if (current.generation != base.generation || current.values.size() >= 2 * (registered.size() + registeredList.size())) {
+            return stored;
+        }
+        var values = new IdentityHashMap<Object, Object>(current.values);
+        values.put(key, stored);
+        compiled = new CompiledSnapshot(current.generation, values);
+        return stored;
     }
 
     public void applyNode(ConfigurationNode configurationNode) {
@@ -307,9 +361,16 @@ public class ConfigurationContainerImpl implements ConfigurationContainer {
                 }
             }
         });
+        invalidateSnapshots();
     }
 
     protected void migrateOld(ConfigurationNode configurationNode) {
 
     }
+
+    @RequiredArgsConstructor
+    private static final class CompiledSnapshot {
+        private final int generation;
+        private final Map<Object, Object> values;
+    }
 }
@@ -74,6 +74,7 @@ public class GameConfigurationContainerImpl extends ConfigurationContainerImpl i
         register(PREVENT_SPAWNING_MOBS, "prevent-spawning-mobs");
         register(SPAWNER_HOLOGRAMS, "spawner-holograms");
         register(SPAWNER_DISABLE_MERGE, "spawner-disable-merge");
+        register(SPAWNER_VIRTUAL_STACKS, "spawner-virtual-stacks");
         register(GAME_START_ITEMS_ENABLED, "game-start-items", "enabled");
         register(GAME_START_ITEMS_ITEMS, "game-start-items", "items");
         register(PLAYER_RESPAWN_ITEMS_ENABLED, "player-respawn-items", "enabled");
@@ -90,6 +90,7 @@ public class MainConfig {
                 .key("spawner-holograms").defValue(true)
                 .key("use-certain-popular-server-like-holograms-for-spawners").defValue(false)
                 .key("spawner-disable-merge").defValue(true)
+                .key("spawner-virtual-stacks").defValue(false)
                 .key("prevent-lobby-spawn-mobs-in-radius").defValue(16)
                 .key("spawner-holo-height").defValue(0.25)
                 .key("spawner-holograms-countdown").defValue(true)
@@ -201,11 +202,27 @@ public class MainConfig {
                         .section("socket")
                             .key("host").defValue("localhost")
                             .key("port").defValue(9000)
+                            .key("queue-size").defValue(1024)
+                            .back()
+                        .section("local")
+                            .key("directory").defValue("")
+                            .key("prefer-unix-sockets").defValue(true)
+                            .key("queue-size").defValue(1024)
                             .back()
                         .key("broadcast-state-changes-to-everyone").defValue(false)
                         .key("prevent-state-change-subscribing").defValue(false)
                         .key("prevent-incoming-state-change-processing").defValue(false)
                         .key("prevent-sending-hello-packet").defValue(false)
+                        .key("delta-state-updates").defValue(true)
+                        .key("compact-codec").defValue(true)
+                        .key("state-keyframe-interval-seconds").defValue(30)
+                        .key("state-heartbeat-interval-seconds").defValue(10)
+                        .key("state-publish-delay-ticks").defValue(2)
+                        .section("batching")
+                            .key("enabled").defValue(true)
+                            .key("flush-delay-ticks").defValue(1)
+                            .key("batch-broadcasts").defValue(false)
+                            .back()
                         .back()
                     .back()
                 .section("ignored-blocks")
@@ -557,6 +574,20 @@ public class MainConfig {
                     .key("type").defValue("yaml")
                     .key("show-on-game-end").defValue(false)
                     .key("bed-destroyed-kills").defValue(false)
+                    .section("database-writer")
+                        .key("flush-interval-ms").defValue(1000)
+                        .key("batch-size").defValue(100)
+                        .back()
+                    .section("database-leaderboard")
+                        .key("enabled").defValue(true)
+                        .key("top-cache-size").defValue(100)
+                        .key("rank-cache-size").defValue(1000)
+                        .key("refresh-interval-seconds").defValue(30)
+                        .back()
+                    .section("cache")
+                        .key("unload-grace-seconds").defValue(60)
+                        .key("max-offline-players").defValue(500)
+                        .back()
                     .section("scores")
                         .key("kill").defValue(10)
                         .key("final-kill").defValue(0)
@@ -658,6 +689,7 @@ public class MainConfig {
                         .key("headline").defValue("&6Bedwars Leaderboard")
                         .key("format").defValue("&l%order%. &7%name% - &a%score%")
                         .key("size").defValue(10)
+                        .key("update-delay-ticks").defValue(20)
                         .back()
                     .back()
                 .section("chat")
@@ -923,10 +955,14 @@ public class MainConfig {
                     .key("holo-height").defValue(0.5)
                     .key("generator-height").defValue(0.25)
                     .back()
+                .section("arena-regeneration")
+                    .key("tick-budget-ms").defValue(10)
+                    .back()
                 .drop("version");
 
                  // @formatter:on
                 generator.saveIfModified();
+                ConfigurationContainerImpl.invalidateSnapshots();
         } catch (ConfigurateException e) {
             e.printStackTrace();
             this.configurationNode = BasicConfigurationNode.root();
@@ -165,4 +165,36 @@ public class DatabaseManager {
     public String getScoresSql() {
         return "SELECT uuid, score, name FROM " + tablePrefix + "stats_players";
     }
+
+    /**
+     * Both columns are sorted the same way, so the score index is read backwards instead of sorting the table.
+     */
+    public String getTopScoresSql() {
+        return "SELECT uuid, score, name FROM " + tablePrefix + "stats_players ORDER BY score DESC, uuid DESC LIMIT ?";
+    }
+
+    public String getRankSql() {
+        return "SELECT COUNT(*) FROM " + tablePrefix + "stats_players WHERE score > ? OR (score = ? AND uuid > ?)";
+    }
+
+    public String getCreateScoreIndexSql() {
+        return "CREATE INDEX `" + tablePrefix + "stats_players_score` ON `" + tablePrefix + "stats_players` (`score`, `uuid`)";
+    }
+
+    /**
+     * Creates the index used by top-N and rank queries unless the table already has it.
+     */
+    public void createScoreIndex(Connection connection) throws SQLException {
+        var indexName = tablePrefix + "stats_players_score";
+        try (var indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, tablePrefix + "stats_players", false, false)) {
+            while (indexes.next()) {
+                if (indexName.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return;
+                }
+            }
+        }
+        try (var preparedStatement = connection.prepareStatement(getCreateScoreIndexSql())) {
+            preparedStatement.executeUpdate();
+        }
+    }
 }
\ No newline at end of file
@@ -19,6 +19,7 @@
 
 package org.screamingsandals.bedwars.entities;
 
+import org.jetbrains.annotations.Nullable;
 import org.screamingsandals.bedwars.api.entities.EntitiesManager;
 import org.screamingsandals.bedwars.api.entities.GameEntity;
 import org.screamingsandals.bedwars.api.game.LocalGame;
@@ -29,13 +30,18 @@ import org.screamingsandals.lib.plugin.ServiceManager;
 import org.screamingsandals.lib.utils.annotations.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class EntitiesManagerImpl implements EntitiesManager {
-    private final List<GameEntityImpl> entities = new ArrayList<>();
+    private final Map<UUID, GameEntityImpl> entities = new HashMap<>();
+    private final Map<GameImpl, Set<GameEntityImpl>> entitiesByGame = new HashMap<>();
 
     public static EntitiesManagerImpl getInstance() {
         return ServiceManager.get(EntitiesManagerImpl.class);
@@ -43,7 +49,8 @@ public class EntitiesManagerImpl implements EntitiesManager {
 
     @Override
     public List<GameEntityImpl> getEntities(LocalGame game) {
-        return entities.stream().filter(gameEntity -> gameEntity.getGame() == game).collect(Collectors.toList());
+        var gameEntities = entitiesByGame.get(game);
+        return gameEntities != null ? new ArrayList<>(gameEntities) : new ArrayList<>();
     }
 
     @Override
@@ -52,7 +59,16 @@ public class EntitiesManagerImpl implements EntitiesManager {
     }
 
     public Optional<GameImpl> getGameOfEntity(Entity entityBasic) {
-        return entities.stream().filter(gameEntity -> gameEntity.getEntity().equals(entityBasic)).findFirst().map(GameEntityImpl::getGame);
+        return Optional.ofNullable(getGameOfEntityOrNull(entityBasic));
+    }
+
+    public @Nullable GameImpl getGameOfEntityOrNull(Entity entityBasic) {
+        var gameEntity = entities.get(entityBasic.getUniqueId());
+        return gameEntity != null ? gameEntity.getGame() : null;
+    }
+
+    public boolean isEntityInGame(Entity entityBasic) {
+        return entities.containsKey(entityBasic.getUniqueId());
     }
 
     @Override
@@ -66,7 +82,11 @@ public class EntitiesManagerImpl implements EntitiesManager {
         }
 
         var gameEntity = new GameEntityImpl((GameImpl) game, entityBasic);
-        entities.add(gameEntity);
+        var previous = entities.put(entityBasic.getUniqueId(), gameEntity);
+        if (previous != null) {
+            unlinkFromGame(previous);
+        }
+        entitiesByGame.computeIfAbsent((GameImpl) game, g -> new LinkedHashSet<>()).add(gameEntity);
         return gameEntity;
     }
 
@@ -76,10 +96,10 @@ public class EntitiesManagerImpl implements EntitiesManager {
     }
 
     public void removeEntityFromGame(Entity entityBasic) {
-        entities.stream()
-                .filter(gameEntity -> gameEntity.getEntity().equals(entityBasic))
-                .findFirst()
-                .ifPresent(this::removeEntityFromGame);
+        var gameEntity = entities.remove(entityBasic.getUniqueId());
+        if (gameEntity != null) {
+            unlinkFromGame(gameEntity);
+        }
     }
 
     @Override
@@ -88,6 +108,36 @@ public class EntitiesManagerImpl implements EntitiesManager {
             throw new IllegalArgumentException("Provided instance of game entity is not created by BedWars plugin!");
         }
 
-        entities.remove(entityObject);
+        var gameEntity = (GameEntityImpl) entityObject;
+        if (entities.remove(gameEntity.getEntity().getUniqueId(), gameEntity)) {
+            unlinkFromGame(gameEntity);
+        }
+    }
+
+    /**
+     * Unregisters all entities of the game.
+     *
+     * @param game the game
+     * @return entities which were registered to the game
+     */
+    public List<GameEntityImpl> removeEntitiesOfGame(GameImpl game) {
+        var gameEntities = entitiesByGame.remove(game);
+        if (gameEntities == null) {
+            return List.of();
+        }
+        for (var gameEntity : gameEntities) {
+            entities.remove(gameEntity.getEntity().getUniqueId(), gameEntity);
+        }
+        return new ArrayList<>(gameEntities);
+    }
+
+    private void unlinkFromGame(GameEntityImpl gameEntity) {
+        var gameEntities = entitiesByGame.get(gameEntity.getGame());
+        if (gameEntities != null) {
+            gameEntities.remove(gameEntity);
+            if (gameEntities.isEmpty()) {
+                entitiesByGame.remove(gameEntity.getGame());
+            }
+        }
     }
 }
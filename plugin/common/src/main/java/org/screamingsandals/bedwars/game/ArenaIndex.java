@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.utils.ArenaBounds;
+import org.screamingsandals.bedwars.utils.BlockPositions;
+import org.screamingsandals.bedwars.utils.LongObjectMap;
+import org.screamingsandals.lib.world.Location;
+import org.screamingsandals.lib.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Local games by the chunks their arena covers, so a block can be resolved to its arena without going through every game.
+ * <p>
+ * Games have to be reindexed whenever their arena bounds change. Not thread-safe.
+ */
+public class ArenaIndex {
+    // world uuid -> chunk key -> games
+    private final @NotNull Map<@NotNull UUID, @NotNull LongObjectMap<@NotNull List<@NotNull GameImpl>>> byWorld = new HashMap<>();
+    private final @NotNull Map<@NotNull GameImpl, @NotNull ArenaBounds> indexed = new IdentityHashMap<>();
+
+    public void add(@NotNull GameImpl game) {
+        remove(game);
+
+        var bounds = game.getArenaBounds();
+        if (bounds == null) {
+            return;
+        }
+
+        indexed.put(game, bounds);
+        var chunks = byWorld.computeIfAbsent(bounds.getWorldUuid(), uuid -> new LongObjectMap<>());
+        for (var x = bounds.getMinChunkX(); x <= bounds.getMaxChunkX(); x++) {
+            for (var z = bounds.getMinChunkZ(); z <= bounds.getMaxChunkZ(); z++) {
+                var key = BlockPositions.chunkKey(x, z);
+                var games = chunks.get(key);
+                if (games == null) {
+                    games = new ArrayList<>(1);
+                    chunks.put(key, games);
+                }
+                games.add(game);
+            }
+        }
+    }
+
+    public void remove(@NotNull GameImpl game) {
+        var bounds = indexed.remove(game);
+        if (bounds == null) {
+            return;
+        }
+
+        var chunks = byWorld.get(bounds.getWorldUuid());
+        if (chunks == null) {
+            return;
+        }
+        for (var x = bounds.getMinChunkX(); x <= bounds.getMaxChunkX(); x++) {
+            for (var z = bounds.getMinChunkZ(); z <= bounds.getMaxChunkZ(); z++) {
+                var key = BlockPositions.chunkKey(x, z);
+                var games = chunks.get(key);
+                if (games != null) {
+                    games.removeIf(indexedGame -> indexedGame == game);
+                    if (games.isEmpty()) {
+                        chunks.remove(key);
+                    }
+                }
+            }
+        }
+        if (chunks.isEmpty()) {
+            byWorld.remove(bounds.getWorldUuid());
+        }
+    }
+
+    public void clear() {
+        byWorld.clear();
+        indexed.clear();
+    }
+
+    /**
+     * @return games whose arena contains the location, the returned list must not be modified
+     */
+    public @NotNull List<@NotNull GameImpl> getGamesAt(@NotNull Location location) {
+        var chunks = byWorld.get(location.getWorld().getUuid());
+        if (chunks == null) {
+            return List.of();
+        }
+
+        var games = chunks.get(BlockPositions.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (games == null) {
+            return List.of();
+        }
+        var matching = 0;
+        for (var game : games) {
+            if (indexed.get(game).contains(location)) {
+                matching++;
+            }
+        }
+        if (matching == games.size()) {
+            // usual case, the chunk is covered by a single arena
+            return games;
+        }
+        if (matching == 0) {
+            return List.of();
+        }
+
+        var result = new ArrayList<GameImpl>(matching);
+        for (var game : games) {
+            if (indexed.get(game).contains(location)) {
+                result.add(game);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return games whose arena covers at least a part of the chunk, the returned list must not be modified
+     */
+    public @NotNull List<@NotNull GameImpl> getGamesInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        var chunks = byWorld.get(world.getUuid());
+        if (chunks == null) {
+            return List.of();
+        }
+
+        var games = chunks.get(BlockPositions.chunkKey(chunkX, chunkZ));
+        return games != null ? games : List.of();
+    }
+}
@@ -55,7 +55,9 @@ import org.screamingsandals.bedwars.lib.debug.Debug;
 import org.screamingsandals.bedwars.player.BedWarsPlayer;
 import org.screamingsandals.bedwars.player.PlayerManagerImpl;
 import org.screamingsandals.bedwars.region.RegionImpl;
+import org.screamingsandals.bedwars.region.RegionRegeneration;
 import org.screamingsandals.bedwars.sidebar.GameSidebar;
+import org.screamingsandals.bedwars.special.TrapImpl;
 import org.screamingsandals.bedwars.statistics.PlayerStatisticManager;
 import org.screamingsandals.bedwars.tab.TabManager;
 import org.screamingsandals.bedwars.utils.*;
@@ -105,6 +107,8 @@ import org.spongepowered.configurate.ConfigurationNode;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
@@ -120,6 +124,8 @@ public class GameImpl implements LocalGame {
     private String name;
     private Location pos1;
     private Location pos2;
+    @Setter(AccessLevel.NONE)
+    private @Nullable ArenaBounds arenaBounds;
     private Location lobbySpawn;
     @Nullable
     private Location lobbyPos1;
@@ -128,6 +134,9 @@ public class GameImpl implements LocalGame {
     private Location specSpawn;
     private final List<TeamImpl> teams = new ArrayList<>();
     private final List<ItemSpawnerImpl> spawners = new ArrayList<>();
+    private final ItemSpawnerScheduler spawnerScheduler = new ItemSpawnerScheduler(this);
+    // items of spawners with maxSpawnedResources > 0 by entity UUID
+    private final Map<UUID, ItemSpawnerImpl> spawnedResources = new HashMap<>();
     private final Map<BedWarsPlayer, RespawnProtection> respawnProtectionMap = new HashMap<>();
     private double fee;
     private int pauseCountdown;
@@ -155,10 +164,13 @@ public class GameImpl implements LocalGame {
     private Task task;
     private final List<TeamImpl> teamsInGame = new ArrayList<>();
     private final RegionImpl region = new RegionImpl();
+    @Setter(AccessLevel.NONE)
+    private @Nullable RegionRegeneration regeneration;
     private TeamSelectorInventory teamSelectorInventory;
     private StatusBar statusbar;
     private final Map<Location, ItemStack[]> usedChests = new HashMap<>();
-    private final List<SpecialItem> activeSpecialItems = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final SpecialItemIndex activeSpecialItems = new SpecialItemIndex();
     private final List<DelayFactory> activeDelays = new ArrayList<>();
     private final Map<BedWarsPlayer, Container> fakeEnderChests = new HashMap<>();
     private int postGameWaiting = 3;
@@ -174,8 +186,28 @@ public class GameImpl implements LocalGame {
     @Setter(AccessLevel.PROTECTED)
     private boolean preparing = false;
 
+    public @Nullable ItemSpawnerImpl getResourceSpawner(Entity item) {
+        return spawnedResources.get(item.getUniqueId());
+    }
+
+    /**
+     * Keeps resource counts of spawners right when an item merges into another one.
+     */
+    public void mergeSpawnedResource(Entity source, Entity target) {
+        var sourceSpawner = getResourceSpawner(source);
+        if (sourceSpawner == null) {
+            return;
+        }
+
+        var targetSpawner = getResourceSpawner(target);
+        if (targetSpawner != null) {
+            targetSpawner.merge(target, sourceSpawner.getSpawnedAmount(source));
+        }
+        sourceSpawner.remove(source);
+    }
+
     public void removeEntity(Entity e) {
-        if (ArenaUtils.isInArea(e.getLocation(), pos1, pos2)) {
+        if (isLocationInArena(e.getLocation())) {
             final var chunk = e.getLocation().getChunk();
             if (!chunk.isLoaded()) {
                 chunk.load();
@@ -286,7 +318,7 @@ public class GameImpl implements LocalGame {
         if (BedWarsPlugin.isFarmBlock(block.block())) {
             return true;
         }
-        if (!ArenaUtils.isInArea(block.location(), pos1, pos2)) {
+        if (!isLocationInArena(block.location())) {
             return false;
         }
 
@@ -321,7 +353,7 @@ public class GameImpl implements LocalGame {
         if (BedWarsPlugin.isFarmBlock(block.block())) {
             return true;
         }
-        if (!ArenaUtils.isInArea(block.location(), pos1, pos2)) {
+        if (!isLocationInArena(block.location())) {
             return false;
         }
 
@@ -788,6 +820,10 @@ public class GameImpl implements LocalGame {
             SignUtils.updateSigns(this);
         } else {
             afterRebuild = GameStatus.DISABLED;
+            if (regeneration != null) {
+                // the arena may be unloaded right after this, so it can't wait for the remaining ticks
+                regeneration.finishNow();
+            }
         }
         EventManager.fire(new GameDisabledEventImpl(this));
     }
@@ -1216,6 +1252,11 @@ public class GameImpl implements LocalGame {
     }
 
     public void rebuild() {
+        if (regeneration != null && !regeneration.isDone()) {
+            return; // already rebuilding
+        }
+        this.status = GameStatus.REBUILDING;
+        cancelTask();
         if (healthIndicator != null) {
             healthIndicator.destroy();
             healthIndicator = null;
@@ -1248,10 +1289,15 @@ public class GameImpl implements LocalGame {
             }
         }
 
-        region.regen();
+        regeneration = region.prepareRegeneration(TimeUnit.MILLISECONDS.toNanos(
+                MainConfig.getInstance().node("arena-regeneration", "tick-budget-ms").getLong(10)
+        ));
+        regeneration.onProgress(r ->
+                Debug.info(name + ": regenerated " + r.getProcessedBlocks() + "/" + r.getTotalBlocks() + " blocks")
+        );
         // Remove items
         for (Entity e : this.world.getEntities()) {
-            if (ArenaUtils.isInArea(e.getLocation(), pos1, pos2)) {
+            if (isLocationInArena(e.getLocation())) {
                 if (e instanceof ItemEntity) {
                     removeEntity(e);
                 }
@@ -1282,17 +1328,22 @@ public class GameImpl implements LocalGame {
         fakeEnderChests.clear();
 
         // Remove remaining entities registered by other plugins
-        for (var entity : EntitiesManagerImpl.getInstance().getEntities(this)) {
+        for (var entity : EntitiesManagerImpl.getInstance().removeEntitiesOfGame(this)) {
             var chunk = entity.getEntity().getLocation().getChunk();
             if (!chunk.isLoaded()) {
                 chunk.load();
             }
             entity.getEntity().remove();
-            EntitiesManagerImpl.getInstance().removeEntityFromGame(entity);
         }
 
         UpgradeRegistry.clearAll(this);
 
+        SignUtils.updateSigns(this);
+        // the game stays in REBUILDING until the region is restored, the chunk tickets keep the arena loaded meanwhile
+        regeneration.start().thenRun(this::finishRebuild);
+    }
+
+    private void finishRebuild() {
         if (!chunksWithTickets.isEmpty()) {
             for (var chunk : chunksWithTickets) {
                 chunk.removePluginChunkTicket();
@@ -1305,10 +1356,16 @@ public class GameImpl implements LocalGame {
         this.status = this.afterRebuild;
         this.countdown = -1;
         SignUtils.updateSigns(this);
-        cancelTask();
         Debug.info(name + ": rebuilding ends");
     }
 
+    /**
+     * @return future completed once the arena is fully regenerated (already completed if the arena is not rebuilding)
+     */
+    public @NotNull CompletableFuture<Void> whenRebuilt() {
+        return regeneration != null ? regeneration.getFuture() : CompletableFuture.completedFuture(null);
+    }
+
     public boolean processRecord(TeamImpl t, int wonTime) {
         var record = RecordSave.getInstance().getRecord(this.getName());
         if (record.map(RecordSave.Record::getTime).orElse(Integer.MAX_VALUE) > wonTime) {
@@ -1431,11 +1488,26 @@ public class GameImpl implements LocalGame {
         if (location == null) {
             return false;
         }
-        return ArenaUtils.isInArea(location.as(Location.class), pos1, pos2);
+        return isLocationInArena(location.as(Location.class));
     }
 
     public boolean isLocationInArena(Location location) {
-        return ArenaUtils.isInArea(location, pos1, pos2);
+        return arenaBounds != null && arenaBounds.contains(location);
+    }
+
+    public void setPos1(Location pos1) {
+        this.pos1 = pos1;
+        updateArenaBounds();
+    }
+
+    public void setPos2(Location pos2) {
+        this.pos2 = pos2;
+        updateArenaBounds();
+    }
+
+    private void updateArenaBounds() {
+        arenaBounds = ArenaBounds.of(pos1, pos2);
+        GameManagerImpl.getInstance().reindexLocalGame(this);
     }
 
     @Override
@@ -1537,16 +1609,13 @@ public class GameImpl implements LocalGame {
 
     @Override
     public List<SpecialItem> getActiveSpecialItems() {
-        return List.copyOf(activeSpecialItems);
+        return List.copyOf(activeSpecialItems.getItems());
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <I extends SpecialItem> List<I> getActiveSpecialItems(Class<I> type) {
-        return activeSpecialItems.stream()
-                .filter(type::isInstance)
-                .map(specialItem -> (I) specialItem)
-                .collect(Collectors.toList());
+        return (List<I>) List.copyOf(activeSpecialItems.getItems(type));
     }
 
     @Override
@@ -1554,9 +1623,7 @@ public class GameImpl implements LocalGame {
         if (!(team instanceof TeamImpl)) {
             throw new IllegalArgumentException("Provided instance of team is not created by BedWars plugin!");
         }
-        return activeSpecialItems.stream()
-                .filter(item -> item.getTeam().equals(team))
-                .collect(Collectors.toList());
+        return List.copyOf(activeSpecialItems.getItemsOfTeam(team));
     }
 
     @SuppressWarnings("unchecked")
@@ -1565,10 +1632,13 @@ public class GameImpl implements LocalGame {
         if (!(team instanceof TeamImpl)) {
             throw new IllegalArgumentException("Provided instance of team is not created by BedWars plugin!");
         }
-        return activeSpecialItems.stream()
-                .filter(item -> type.isInstance(item) && item.getTeam().equals(team))
-                .map(item -> (I) item)
-                .collect(Collectors.toList());
+        var result = new ArrayList<I>();
+        for (var item : activeSpecialItems.getItemsOfTeam(team)) {
+            if (type.isInstance(item)) {
+                result.add((I) item);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -1576,10 +1646,8 @@ public class GameImpl implements LocalGame {
         if (!(team instanceof TeamImpl)) {
             throw new IllegalArgumentException("Provided instance of team is not created by BedWars plugin!");
         }
-        return activeSpecialItems.stream()
-                .filter(item -> item.getTeam().equals(team))
-                .findFirst()
-                .orElse(null);
+        var items = activeSpecialItems.getItemsOfTeam(team);
+        return items.isEmpty() ? null : items.get(0);
     }
 
     @SuppressWarnings("unchecked")
@@ -1588,10 +1656,12 @@ public class GameImpl implements LocalGame {
         if (!(team instanceof TeamImpl)) {
             throw new IllegalArgumentException("Provided instance of team is not created by BedWars plugin!");
         }
-        return (I) activeSpecialItems.stream()
-                .filter(item -> item.getTeam().equals(team) && type.isInstance(item))
-                .findFirst()
-                .orElse(null);
+        for (var item : activeSpecialItems.getItemsOfTeam(team)) {
+            if (type.isInstance(item)) {
+                return (I) item;
+            }
+        }
+        return null;
     }
 
     @Override
@@ -1599,9 +1669,7 @@ public class GameImpl implements LocalGame {
         if (!(player instanceof BedWarsPlayer)) {
             throw new IllegalArgumentException("Provided instance of player is not created by BedWars plugin!");
         }
-        return activeSpecialItems.stream()
-                .filter(item -> item.getPlayer().equals(player))
-                .collect(Collectors.toList());
+        return List.copyOf(activeSpecialItems.getItemsOfPlayer(player));
     }
 
     @SuppressWarnings("unchecked")
@@ -1610,10 +1678,13 @@ public class GameImpl implements LocalGame {
         if (!(player instanceof BedWarsPlayer)) {
             throw new IllegalArgumentException("Provided instance of player is not created by BedWars plugin!");
         }
-        return activeSpecialItems.stream()
-                .filter(item -> item.getPlayer().equals(player) && type.isInstance(item))
-                .map(item -> (I) item)
-                .collect(Collectors.toList());
+        var result = new ArrayList<I>();
+        for (var item : activeSpecialItems.getItemsOfPlayer(player)) {
+            if (type.isInstance(item)) {
+                result.add((I) item);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -1621,10 +1692,8 @@ public class GameImpl implements LocalGame {
         if (!(player instanceof BedWarsPlayer)) {
             throw new IllegalArgumentException("Provided instance of player is not created by BedWars plugin!");
         }
-        return activeSpecialItems.stream()
-                .filter(item -> item.getPlayer().equals(player))
-                .findFirst()
-                .orElse(null);
+        var items = activeSpecialItems.getItemsOfPlayer(player);
+        return items.isEmpty() ? null : items.get(0);
     }
 
     @SuppressWarnings("unchecked")
@@ -1633,17 +1702,17 @@ public class GameImpl implements LocalGame {
         if (!(player instanceof BedWarsPlayer)) {
             throw new IllegalArgumentException("Provided instance of player is not created by BedWars plugin!");
         }
-        return (I) activeSpecialItems.stream()
-                .filter(item -> item.getPlayer().equals(player) && type.isInstance(item))
-                .findFirst()
-                .orElse(null);
+        for (var item : activeSpecialItems.getItemsOfPlayer(player)) {
+            if (type.isInstance(item)) {
+                return (I) item;
+            }
+        }
+        return null;
     }
 
     @Override
     public void registerSpecialItem(SpecialItem item) {
-        if (!activeSpecialItems.contains(item)) {
-            activeSpecialItems.add(item);
-        }
+        activeSpecialItems.add(item);
     }
 
     @Override
@@ -1656,6 +1725,17 @@ public class GameImpl implements LocalGame {
         return activeSpecialItems.contains(item);
     }
 
+    /**
+     * @return placed trap occupying the block, if any
+     */
+    public @Nullable TrapImpl getTrapAt(Location location) {
+        return activeSpecialItems.getTrapAt(location);
+    }
+
+    public void placeTrap(TrapImpl trap, @Nullable Location previousLocation) {
+        activeSpecialItems.placeTrap(trap, previousLocation);
+    }
+
     @Override
     public List<DelayFactory> getActiveDelays() {
         return List.copyOf(activeDelays);
@@ -2020,7 +2100,7 @@ public class GameImpl implements LocalGame {
             kickAllPlayers();
         }
 
-        Tasker.runDelayed(DefaultThreads.GLOBAL_THREAD, () -> {
+        whenRebuilt().thenRun(() -> Tasker.runDelayed(DefaultThreads.GLOBAL_THREAD, () -> {
             if (MainConfig.getInstance().node("bungee", "serverRestart").getBoolean()) {
                 EventManager.fire(new ServerRestartEventImpl());
 
@@ -2030,7 +2110,7 @@ public class GameImpl implements LocalGame {
             } else {
                 preServerRestart = false;
             }
-        }, 30, TaskerTime.TICKS);
+        }, 30, TaskerTime.TICKS));
     }
 
     public void spawnGameStores() {
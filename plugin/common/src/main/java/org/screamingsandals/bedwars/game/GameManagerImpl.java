@@ -41,6 +41,8 @@ import org.screamingsandals.lib.utils.annotations.methods.OnPreDisable;
 import org.screamingsandals.lib.utils.annotations.parameters.ConfigFile;
 import org.screamingsandals.lib.utils.annotations.parameters.DataFolder;
 import org.screamingsandals.lib.utils.logger.LoggerWrapper;
+import org.screamingsandals.lib.world.Location;
+import org.screamingsandals.lib.world.chunk.Chunk;
 import org.spongepowered.configurate.ConfigurateException;
 
 import java.io.File;
@@ -48,6 +50,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -63,6 +66,12 @@ public class GameManagerImpl implements GameManager {
     private final File remoteGamesFile;
     private final LoggerWrapper logger;
     private final List<Game> games = new LinkedList<>();
+    // replaced on every change, so callers can iterate it while games are added or removed
+    private List<GameImpl> localGames = List.of();
+    private final ArenaIndex arenaIndex = new ArenaIndex();
+    // server -> remote game identifier (name or uuid) -> games, read from the threads receiving game states
+    private final Map<String, Map<String, List<RemoteGameImpl>>> remoteGameIndex = new ConcurrentHashMap<>();
+    private final Map<UUID, String> indexedRemoteGameServers = new ConcurrentHashMap<>(); // RemoteGameImpl is @Data, so not keyed by itself
 
     @Getter
     private @Nullable Game preselectedGame;
@@ -119,10 +128,30 @@ public class GameManagerImpl implements GameManager {
 
     @Override
     public List<GameImpl> getLocalGames() {
-        return games.stream()
-                .filter(game -> game instanceof GameImpl)
-                .map(game -> (GameImpl) game)
-                .collect(Collectors.toList());
+        return localGames;
+    }
+
+    /**
+     * @return local games whose arena contains the location, more than one only if arenas were forced to overlap
+     */
+    public @NotNull List<@NotNull GameImpl> getLocalGamesAt(@NotNull Location location) {
+        return arenaIndex.getGamesAt(location);
+    }
+
+    /**
+     * @return local games whose arena covers at least a part of the chunk
+     */
+    public @NotNull List<@NotNull GameImpl> getLocalGamesInChunk(@NotNull Chunk chunk) {
+        return arenaIndex.getGamesInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Updates the arena index after the arena bounds of a registered local game have changed.
+     */
+    public void reindexLocalGame(@NotNull GameImpl game) {
+        if (localGames.contains(game)) {
+            arenaIndex.add(game);
+        }
     }
 
     @Override
@@ -183,6 +212,12 @@ public class GameManagerImpl implements GameManager {
     public void addGame(@NotNull Game game) {
         if (!games.contains(game)) {
             games.add(game);
+            if (game instanceof GameImpl) {
+                indexLocalGame((GameImpl) game);
+            }
+            if (game instanceof RemoteGameImpl) {
+                indexRemoteGame((RemoteGameImpl) game);
+            }
             if (game instanceof RemoteGameImpl && ((RemoteGameImpl) game).getSaveFile() != null) {
                 RemoteGameLoaderImpl.getInstance().saveGame((RemoteGameImpl) game);
             }
@@ -191,6 +226,12 @@ public class GameManagerImpl implements GameManager {
 
     public void removeGame(@NotNull Game game) {
         games.remove(game);
+        if (game instanceof GameImpl) {
+            unindexLocalGame((GameImpl) game);
+        }
+        if (game instanceof RemoteGameImpl) {
+            unindexRemoteGame((RemoteGameImpl) game);
+        }
         if (game instanceof RemoteGameImpl && ((RemoteGameImpl) game).getSaveFile() != null) {
             // This will actually remove the game from the shared file as it is no longer registered
             RemoteGameLoaderImpl.getInstance().saveGame((RemoteGameImpl) game);
@@ -213,7 +254,7 @@ public class GameManagerImpl implements GameManager {
                         if (file.exists() && file.isFile() && !file.getName().toLowerCase(Locale.ROOT).endsWith(".disabled")) {
                             LocalGameLoaderImpl.getInstance().loadGame(file, true).thenAccept(game -> {
                                 if (game != null) {
-                                    games.add(game);
+                                    addGame(game);
                                 }
                             });
                         }
@@ -246,6 +287,10 @@ public class GameManagerImpl implements GameManager {
             }
         });
         games.clear();
+        localGames = List.of();
+        arenaIndex.clear();
+        remoteGameIndex.clear();
+        indexedRemoteGameServers.clear();
     }
 
     public void reselectGame() {
@@ -311,4 +356,80 @@ public class GameManagerImpl implements GameManager {
         addGame(remoteGame);
         return remoteGame;
     }
+
+    /**
+     * @return remote games pointing to the game with the given name or uuid on the server
+     */
+    public @NotNull List<RemoteGameImpl> getRemoteGames(@NotNull String server, @NotNull String identifier) {
+        var byIdentifier = remoteGameIndex.get(server);
+        if (byIdentifier == null) {
+            return List.of();
+        }
+        return byIdentifier.getOrDefault(identifier, List.of());
+    }
+
+    /**
+     * Updates the index after the remote server or identifier of a registered remote game has changed.
+     */
+    public void reindexRemoteGame(@NotNull RemoteGameImpl remoteGame) {
+        if (indexedRemoteGameServers.containsKey(remoteGame.getUuid())) {
+            unindexRemoteGame(remoteGame);
+            indexRemoteGame(remoteGame);
+        }
+    }
+
+    private void indexLocalGame(@NotNull GameImpl game) {
+        var list = new ArrayList<>(localGames);
+        list.add(game);
+        localGames = List.copyOf(list);
+        arenaIndex.add(game);
+    }
+
+    private void unindexLocalGame(@NotNull GameImpl game) {
+        var list = new ArrayList<>(localGames);
+        if (list.removeIf(localGame -> localGame == game)) {
+            localGames = List.copyOf(list);
+        }
+        arenaIndex.remove(game);
+    }
+
+    private synchronized void indexRemoteGame(@NotNull RemoteGameImpl remoteGame) {
+        var identifier = remoteGame.getRemoteGameIdentifier();
+        // also remembers games without identifier, so they can be reindexed once they get one
+        indexedRemoteGameServers.put(remoteGame.getUuid(), remoteGame.getRemoteServer());
+        if (identifier == null) {
+            return;
+        }
+
+        // lists are replaced instead of modified, so readers never see them change
+        remoteGameIndex.computeIfAbsent(remoteGame.getRemoteServer(), server -> new ConcurrentHashMap<>())
+                .merge(identifier, List.of(remoteGame), (current, added) -> {
+                    var list = new ArrayList<>(current);
+                    list.addAll(added);
+                    return List.copyOf(list);
+                });
+    }
+
+    private synchronized void unindexRemoteGame(@NotNull RemoteGameImpl remoteGame) {
+        var server = indexedRemoteGameServers.remove(remoteGame.getUuid());
+        var byIdentifier = server != null ? remoteGameIndex.get(server) : null;
+        if (byIdentifier == null) {
+            return;
+        }
+
+        // the identifier may have changed since indexing, so look everywhere on the server
+        for (var identifier : List.copyOf(byIdentifier.keySet())) {
+            byIdentifier.computeIfPresent(identifier, (key, current) -> {
+                if (current.stream().noneMatch(game -> game == remoteGame)) {
+                    return current;
+                }
+                var list = new ArrayList<>(current);
+                list.removeIf(game -> game == remoteGame);
+                return list.isEmpty() ? null : List.copyOf(list);
+            });
+        }
+        if (byIdentifier.isEmpty()) {
+            remoteGameIndex.remove(server, byIdentifier);
+        }
+    }
 }
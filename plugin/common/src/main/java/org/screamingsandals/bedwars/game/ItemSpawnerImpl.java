@@ -41,9 +41,9 @@ import org.screamingsandals.lib.event.EventManager;
 import org.screamingsandals.lib.hologram.Hologram;
 import org.screamingsandals.lib.hologram.HologramManager;
 import org.screamingsandals.lib.lang.Message;
+import org.screamingsandals.lib.item.ItemStack;
 import org.screamingsandals.lib.item.builder.ItemStackFactory;
 import org.screamingsandals.lib.tasker.TaskerTime;
-import org.screamingsandals.lib.tasker.task.Task;
 import org.screamingsandals.lib.utils.Pair;
 import org.screamingsandals.lib.utils.visual.TextEntry;
 import org.screamingsandals.lib.world.Location;
@@ -51,10 +51,12 @@ import org.spongepowered.configurate.ConfigurateException;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.serialize.SerializationException;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Getter
@@ -79,7 +81,27 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
     @Setter(AccessLevel.NONE)
     private int tier;
 
-    private final List<ItemEntity> spawnedItems = new ArrayList<>();
+    // keyed by entity UUID, together with the amount each item had when it was counted
+    @Getter(AccessLevel.NONE)
+    private final Map<UUID, SpawnedResource> spawnedItems = new HashMap<>();
+    /**
+     * Works only if maxSpawnedResources > 0
+     */
+    @Setter(AccessLevel.NONE)
+    private int spawnedItemsCount;
+
+    // virtual stack mode: resources are only counted, one display item stands in for all of them
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean useVirtualStack;
+    @Setter(AccessLevel.NONE)
+    private int virtualStackAmount;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ItemStack virtualStackResource;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ItemEntity virtualStackDisplay;
 
     @Setter(AccessLevel.NONE)
     private boolean spawnerIsFullHologram = false;
@@ -95,14 +117,9 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
     @Getter(AccessLevel.NONE)
     @Setter(AccessLevel.NONE)
     private boolean certainPopularServerHolo;
-    @Getter(AccessLevel.NONE)
-    @Setter(AccessLevel.NONE)
-    private volatile boolean firstTick = true;
     @Setter(AccessLevel.NONE)
     private Pair<Long, TaskerTime> currentInterval;
     @Setter(AccessLevel.NONE)
-    private long elapsedTime;
-    @Setter(AccessLevel.NONE)
     private long countdownDelay;
     @Setter(AccessLevel.NONE)
     private volatile long currentCycle;
@@ -110,7 +127,27 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
     private boolean spawnerLockedFull;
     @Getter(AccessLevel.NONE)
     @Setter(AccessLevel.NONE)
-    private Task runningTask;
+    private GameImpl game;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ItemSpawnerScheduler scheduler;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long startTick;
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.NONE)
+    private long nextSpawnTick;
+
+    // Precomputed options
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean resetFullSpawnerCountdownAfterPicking;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean useCountdownHologram;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean stopTeamSpawnersOnDie;
 
     public ItemSpawnerImpl(Location location, ItemSpawnerTypeImpl itemSpawnerType) {
         this.location = location;
@@ -135,10 +172,12 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
             return calculated;
         }
 
-        /* Update spawned items */
-        spawnedItems.removeIf(Entity::isDead);
+        /* Items may also vanish without being picked up (despawn, lava, void), so look for them once the spawner seems full */
+        if (spawnedItemsCount + calculated > maxSpawnedResources) {
+            removeDeadItems();
+        }
 
-        int spawned = getSpawnedItemsCount();
+        int spawned = spawnedItemsCount + virtualStackAmount;
 
         if (spawned >= maxSpawnedResources) {
             spawnerLockedFull = true;
@@ -185,26 +224,139 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
     }
 
     public void add(ItemEntity item) {
-        if (maxSpawnedResources > 0 && !spawnedItems.contains(item)) {
-            spawnedItems.add(item);
+        if (maxSpawnedResources > 0) {
+            var amount = item.getItem().getAmount();
+            if (spawnedItems.putIfAbsent(item.getUniqueId(), new SpawnedResource(item, amount)) == null) {
+                spawnedItemsCount += amount;
+                if (game != null) {
+                    game.getSpawnedResources().put(item.getUniqueId(), this);
+                }
+            }
         }
     }
 
-    public void remove(ItemEntity item) {
-        if (maxSpawnedResources > 0 && spawnedItems.contains(item)) {
-            spawnedItems.remove(item);
-            if (spawnerIsFullHologram && maxSpawnedResources > getSpawnedItemsCount()) {
-                spawnerIsFullHologram = false;
-                rerenderHologram = true;
+    public void remove(Entity item) {
+        if (maxSpawnedResources > 0 && untrack(item.getUniqueId())) {
+            resourcesTaken();
+        }
+    }
+
+    private void resourcesTaken() {
+        if (spawnerIsFullHologram && maxSpawnedResources > spawnedItemsCount + virtualStackAmount) {
+            spawnerIsFullHologram = false;
+            rerenderHologram = true;
+        }
+        if (spawnerLockedFull && resetFullSpawnerCountdownAfterPicking && scheduler != null) {
+            // no need to wait for the next check, the countdown can restart right away
+            if (unlock(scheduler.getCurrentTick())) {
+                scheduler.resume(this);
             }
         }
     }
 
+    public boolean isVirtualStackDisplay(Entity item) {
+        return virtualStackDisplay != null && virtualStackDisplay.getUniqueId().equals(item.getUniqueId());
+    }
+
     /**
-     * Works only if maxSpawnedResources > 0
+     * Hands the whole virtual stack over to the player, whatever does not fit stays in the stack.
+     */
+    public void pickUpVirtualStack(BedWarsPlayer player) {
+        if (virtualStackAmount <= 0 || virtualStackResource == null) {
+            return;
+        }
+
+        var remaining = player.getPlayerInventory().addItem(virtualStackResource.withAmount(virtualStackAmount));
+        var left = 0;
+        for (var stack : remaining) {
+            left += stack.getAmount();
+        }
+        if (left == virtualStackAmount) {
+            return; // inventory is full
+        }
+
+        virtualStackAmount = left;
+        if (virtualStackAmount == 0) {
+            removeVirtualStackDisplay();
+        }
+        resourcesTaken();
+    }
+
+    private void addToVirtualStack(ItemStack resource) {
+        virtualStackAmount += resource.getAmount();
+        virtualStackResource = resource.withAmount(1);
+        updateVirtualStackDisplay();
+    }
+
+    private void updateVirtualStackDisplay() {
+        if (virtualStackAmount <= 0 || (virtualStackDisplay != null && !virtualStackDisplay.isDead())) {
+            return;
+        }
+
+        // the display despawned or has never been dropped
+        removeVirtualStackDisplay();
+        var item = Objects.requireNonNull(Entities.dropItem(virtualStackResource, this.location.add(0, 0.05, 0)));
+        item.setVelocity(item.getVelocity().multiply(0));
+        item.setPickupDelay(0, TimeUnit.SECONDS);
+        virtualStackDisplay = item;
+        if (game != null) {
+            game.getSpawnedResources().put(item.getUniqueId(), this);
+        }
+    }
+
+    private void removeVirtualStackDisplay() {
+        if (virtualStackDisplay != null) {
+            if (game != null) {
+                game.getSpawnedResources().remove(virtualStackDisplay.getUniqueId(), this);
+            }
+            virtualStackDisplay.remove();
+            virtualStackDisplay = null;
+        }
+    }
+
+    /**
+     * Counts the amount of a merged item towards the item it has been merged into.
+     */
+    public void merge(Entity item, int amount) {
+        var resource = spawnedItems.get(item.getUniqueId());
+        if (resource != null) {
+            resource.amount += amount;
+            spawnedItemsCount += amount;
+        }
+    }
+
+    /**
+     * @return amount the item was counted with, 0 if it is not one of ours
      */
-    public int getSpawnedItemsCount() {
-        return spawnedItems.stream().mapToInt(i -> i.getItem().getAmount()).sum();
+    public int getSpawnedAmount(Entity item) {
+        var resource = spawnedItems.get(item.getUniqueId());
+        return resource != null ? resource.amount : 0;
+    }
+
+    private boolean untrack(UUID uuid) {
+        var resource = spawnedItems.remove(uuid);
+        if (resource == null) {
+            return false;
+        }
+        spawnedItemsCount -= resource.amount;
+        if (game != null) {
+            game.getSpawnedResources().remove(uuid, this);
+        }
+        return true;
+    }
+
+    private void removeDeadItems() {
+        var iterator = spawnedItems.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getValue().item.isDead()) {
+                iterator.remove();
+                spawnedItemsCount -= entry.getValue().amount;
+                if (game != null) {
+                    game.getSpawnedResources().remove(entry.getKey(), this);
+                }
+            }
+        }
     }
 
     @Override
@@ -242,9 +394,16 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
         }
     }
 
+    /**
+     * @return ticks the spawner has been running for
+     */
+    public long getElapsedTime() {
+        return scheduler != null ? scheduler.getCurrentTick() - startTick + 1 : 0;
+    }
+
     @Override
     public long getIntervalTicks() {
-        return currentInterval != null ? currentInterval.second().getBukkitTime(currentCycle - elapsedTime % currentCycle) : 0;
+        return currentInterval != null ? currentInterval.second().getBukkitTime(currentCycle - getElapsedTime() % currentCycle) : 0;
     }
 
     @Override
@@ -310,9 +469,9 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
     }
 
     public void destroy() {
-        if (runningTask != null) {
-            runningTask.cancel();
-            runningTask = null;
+        if (scheduler != null) {
+            scheduler.remove(this);
+            scheduler = null;
         }
 
         if (hologram != null) {
@@ -321,7 +480,17 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
         }
 
         amountPerSpawn = baseAmountPerSpawn;
+        removeVirtualStackDisplay();
+        if (game != null) {
+            for (var uuid : spawnedItems.keySet()) {
+                game.getSpawnedResources().remove(uuid, this);
+            }
+            game = null;
+        }
+        virtualStackAmount = 0;
+        virtualStackResource = null;
         spawnedItems.clear();
+        spawnedItemsCount = 0;
         started = false;
         disabled = false;
     }
@@ -331,6 +500,7 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
             return;
         }
 
+        this.game = game;
         this.amountPerSpawn = this.baseAmountPerSpawn;
         this.tier = 0;
         this.certainPopularServerHolo = hologramType == HologramType.CERTAIN_POPULAR_SERVER || (hologramType == HologramType.DEFAULT && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.USE_CERTAIN_POPULAR_SERVER_LIKE_HOLOGRAMS_FOR_SPAWNERS, false));
@@ -346,7 +516,6 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
         }
 
         started = true;
-        firstTick = true;
 
         // Old-new synchronous and probably more optimized spawner logic
 
@@ -356,103 +525,62 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
 
         this.currentInterval = Objects.requireNonNullElseGet(this.initialInterval, this.itemSpawnerType::getInterval);
 
-        if (runningTask != null) {
-            runningTask.cancel();
-            runningTask = null;
+        if (scheduler != null) {
+            scheduler.remove(this);
         }
 
         // Precomputed options
-        boolean resetFullSpawnerCountdownAfterPicking = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.RESET_FULL_SPAWNER_COUNTDOWN_AFTER_PICKING, true);
-        boolean useHolograms = hologramEnabled && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.SPAWNER_HOLOGRAMS, false)
+        this.resetFullSpawnerCountdownAfterPicking = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.RESET_FULL_SPAWNER_COUNTDOWN_AFTER_PICKING, true);
+        this.useCountdownHologram = hologramEnabled && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.SPAWNER_HOLOGRAMS, false)
                 && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.SPAWNER_COUNTDOWN_HOLOGRAM, false);
-        boolean stopTeamSpawnersOnDie = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.STOP_TEAM_SPAWNERS_ON_DIE, false);
+        this.stopTeamSpawnersOnDie = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.STOP_TEAM_SPAWNERS_ON_DIE, false);
+        this.useVirtualStack = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.SPAWNER_VIRTUAL_STACKS, false);
         this.currentCycle = currentInterval.second().getBukkitTime(currentInterval.getFirst());
 
         // Cycle
-        this.elapsedTime = 0;
         this.countdownDelay = 0;
         this.spawnerLockedFull = false;
-        this.runningTask = this.location.tasker().runRepeatedly(taskItself -> {
-            if (this.firstTick) {
-                this.firstTick = false;
-                this.elapsedTime++;
-                return;
-            }
-
-            if (team != null && !game.isTeamActive(team) && stopTeamSpawnersOnDie) {
-                taskItself.cancel();
-                return;
-            }
-
-            long elapsedTime = this.elapsedTime - this.countdownDelay;
-            boolean preventSpawn = false;
-
-            this.elapsedTime++;
-
-            if (resetFullSpawnerCountdownAfterPicking && this.spawnerLockedFull) {
-                this.spawnedItems.removeIf(Entity::isDead);
-                if (this.maxSpawnedResources > getSpawnedItemsCount()) {
-                    elapsedTime += this.countdownDelay;
-                    this.countdownDelay = elapsedTime % currentCycle;
-                    this.spawnerLockedFull = false;
-                    preventSpawn = true;
-                } else {
-                    return;
-                }
-            }
-
-            if (useHolograms && elapsedTime % 20 == 0) {
-                long remainingTimeToSpawn = (currentCycle - elapsedTime % currentCycle) / 20;
+        this.scheduler = game.getSpawnerScheduler();
+        this.scheduler.add(this);
+    }
 
-                if (remainingTimeToSpawn == 0) {
-                    remainingTimeToSpawn = currentCycle / 20;
-                }
+    /**
+     * @param firstTick tick of the scheduler in which the spawner runs for the first time
+     */
+    void scheduled(long firstTick) {
+        this.startTick = firstTick;
+        // the first tick never spawns
+        this.nextSpawnTick = firstTick + Math.max(1, currentCycle);
+    }
 
-                if (!spawnerIsFullHologram) {
-                    if (certainPopularServerHolo) {
-                        if (currentInterval.first() > 1) {
-                            hologram.replaceLine(2, Message.of(LangKeys.IN_GAME_SPAWNER_COUNTDOWN_CERTAIN_POPULAR_SERVER).placeholder("seconds",  currentInterval.second().getBukkitTime(remainingTimeToSpawn) / 20));
-                        } else if (rerenderHologram) {
-                            hologram.replaceLine(2, Message.of(LangKeys.IN_GAME_SPAWNER_EVERY_SECOND));
-                            rerenderHologram = false;
-                        }
-                    } else {
-                        if (currentInterval.first() > 1) {
-                            hologram.replaceLine(1, Message.of(LangKeys.IN_GAME_SPAWNER_COUNTDOWN).placeholder("seconds",  currentInterval.second().getBukkitTime(remainingTimeToSpawn) / 20));
-                        } else if (rerenderHologram) {
-                            hologram.replaceLine(1, Message.of(LangKeys.IN_GAME_SPAWNER_EVERY_SECOND));
-                            rerenderHologram = false;
-                        }
-                    }
-                }
-            }
+    ItemSpawnerScheduler.State spawnDue(GameImpl game, long tick) {
+        if (team != null && stopTeamSpawnersOnDie && !game.isTeamActive(team)) {
+            return ItemSpawnerScheduler.State.STOPPED;
+        }
 
-            if (preventSpawn || elapsedTime % currentCycle != 0) {
-                return;
-            }
+        this.nextSpawnTick = tick + Math.max(1, currentCycle);
 
-            var calculatedStack = (int) amountPerSpawn;
+        var calculatedStack = (int) amountPerSpawn;
 
-            /* fractional levels: have a weighted chance to increment */
-            /* for example, 3.1 -> 10% chance for 4 and 90% chance for 3 */
-            if ((amountPerSpawn % 1) != 0) {
-                if (Math.random() < (amountPerSpawn % 1)) {
-                    calculatedStack++;
-                }
+        /* fractional levels: have a weighted chance to increment */
+        /* for example, 3.1 -> 10% chance for 4 and 90% chance for 3 */
+        if ((amountPerSpawn % 1) != 0) {
+            if (Math.random() < (amountPerSpawn % 1)) {
+                calculatedStack++;
             }
+        }
 
-            var resourceSpawnEvent = new ResourceSpawnEventImpl(game, this, itemSpawnerType, itemSpawnerType.getItem(calculatedStack));
-            EventManager.fire(resourceSpawnEvent);
-
-            if (resourceSpawnEvent.isCancelled()) {
-                return;
-            }
+        var resourceSpawnEvent = new ResourceSpawnEventImpl(game, this, itemSpawnerType, itemSpawnerType.getItem(calculatedStack));
+        EventManager.fire(resourceSpawnEvent);
 
+        if (!resourceSpawnEvent.isCancelled()) {
             var resource = resourceSpawnEvent.getResource();
 
             resource = resource.withAmount(nextMaxSpawn(resource.getAmount()));
 
-            if (resource.getAmount() > 0) {
+            if (resource.getAmount() > 0 && useVirtualStack) {
+                addToVirtualStack(resource);
+            } else if (resource.getAmount() > 0) {
                 var loc = this.location.add(0, 0.05, 0);
                 var item = Objects.requireNonNull(Entities.dropItem(resource, loc));
                 var spread = customSpread != null ? customSpread : itemSpawnerType.getSpread();
@@ -462,7 +590,77 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
                 item.setPickupDelay(0, TimeUnit.SECONDS);
                 add(item);
             }
-        }, 1, TaskerTime.TICKS);
+        }
+
+        if (resetFullSpawnerCountdownAfterPicking && this.spawnerLockedFull) {
+            // the countdown starts again once something has been picked up
+            return ItemSpawnerScheduler.State.WAITING;
+        }
+        return ItemSpawnerScheduler.State.SCHEDULED;
+    }
+
+    /**
+     * Runs once per second.
+     *
+     * @return false if the spawner should stop
+     */
+    boolean refresh(GameImpl game, long tick) {
+        if (team != null && stopTeamSpawnersOnDie && !game.isTeamActive(team)) {
+            return false;
+        }
+
+        if (useVirtualStack) {
+            updateVirtualStackDisplay();
+        }
+
+        if (resetFullSpawnerCountdownAfterPicking && this.spawnerLockedFull) {
+            if (unlock(tick)) {
+                scheduler.resume(this);
+            } else {
+                return true;
+            }
+        }
+
+        if (useCountdownHologram && hologram != null && !spawnerIsFullHologram) {
+            long remainingTimeToSpawn = (nextSpawnTick - tick + ItemSpawnerScheduler.REFRESH_INTERVAL_TICKS - 1) / ItemSpawnerScheduler.REFRESH_INTERVAL_TICKS;
+
+            if (remainingTimeToSpawn <= 0) {
+                remainingTimeToSpawn = currentCycle / 20;
+            }
+
+            if (certainPopularServerHolo) {
+                if (currentInterval.first() > 1) {
+                    hologram.replaceLine(2, Message.of(LangKeys.IN_GAME_SPAWNER_COUNTDOWN_CERTAIN_POPULAR_SERVER).placeholder("seconds",  currentInterval.second().getBukkitTime(remainingTimeToSpawn) / 20));
+                } else if (rerenderHologram) {
+                    hologram.replaceLine(2, Message.of(LangKeys.IN_GAME_SPAWNER_EVERY_SECOND));
+                    rerenderHologram = false;
+                }
+            } else {
+                if (currentInterval.first() > 1) {
+                    hologram.replaceLine(1, Message.of(LangKeys.IN_GAME_SPAWNER_COUNTDOWN).placeholder("seconds",  currentInterval.second().getBukkitTime(remainingTimeToSpawn) / 20));
+                } else if (rerenderHologram) {
+                    hologram.replaceLine(1, Message.of(LangKeys.IN_GAME_SPAWNER_EVERY_SECOND));
+                    rerenderHologram = false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restarts the countdown of a full spawner if some of its resources are gone.
+     */
+    private boolean unlock(long tick) {
+        removeDeadItems();
+        if (this.maxSpawnedResources <= spawnedItemsCount + virtualStackAmount) {
+            return false;
+        }
+
+        long elapsedTime = tick - startTick;
+        this.countdownDelay = elapsedTime % Math.max(1, currentCycle);
+        this.spawnerLockedFull = false;
+        this.nextSpawnTick = tick + Math.max(1, currentCycle);
+        return true;
     }
 
     public void changeInterval(Pair<Long, TaskerTime> time) {
@@ -472,6 +670,14 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
 
         this.currentInterval = time;
         this.currentCycle = time.second().getBukkitTime(time.first());
+
+        if (scheduler != null && !spawnerLockedFull) {
+            // first tick after the current one which lines up with the new cycle
+            var cycle = Math.max(1, currentCycle);
+            var elapsedTime = scheduler.getCurrentTick() - startTick;
+            this.nextSpawnTick = startTick + elapsedTime + cycle - Math.floorMod(elapsedTime - countdownDelay, cycle);
+            scheduler.reschedule(this);
+        }
     }
 
     @Override
@@ -497,6 +703,16 @@ public class ItemSpawnerImpl implements ItemSpawner, SerializableGameComponent {
         node.node("customSpread").set(customSpread);
     }
 
+    private static class SpawnedResource {
+        private final ItemEntity item;
+        private int amount;
+
+        private SpawnedResource(ItemEntity item, int amount) {
+            this.item = item;
+            this.amount = amount;
+        }
+    }
+
     public static class Loader implements SerializableGameComponentLoader<ItemSpawnerImpl> {
         public static final Loader INSTANCE = new Loader();
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game;
+
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.screamingsandals.lib.tasker.TaskerTime;
+import org.screamingsandals.lib.tasker.task.Task;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Drives all running spawners of a game from one repeating task. Spawners wait in a queue ordered by the tick of their
+ * next spawn, so a tick only touches the spawners which are due. Countdown holograms, dead teams and spawners waiting
+ * for their resources to be picked up are checked together once per second.
+ */
+@RequiredArgsConstructor
+public class ItemSpawnerScheduler {
+    static final int REFRESH_INTERVAL_TICKS = 20;
+
+    private final @NotNull GameImpl game;
+    private final @NotNull PriorityQueue<ItemSpawnerImpl> dueSpawners = new PriorityQueue<>(Comparator.comparingLong(ItemSpawnerImpl::getNextSpawnTick));
+    private @NotNull ItemSpawnerImpl @NotNull [] spawners = new ItemSpawnerImpl[16];
+    private int size;
+    private long currentTick;
+    private Task task;
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public void add(@NotNull ItemSpawnerImpl spawner) {
+        if (size == spawners.length) {
+            spawners = Arrays.copyOf(spawners, size * 2);
+        }
+        spawners[size++] = spawner;
+        // the spawner sees its first tick in the next run of the task
+        spawner.scheduled(currentTick + 1);
+        dueSpawners.add(spawner);
+
+        if (task == null) {
+            // regionized servers keep an arena within one region, so the first spawner's thread is fine for all of them
+            task = spawner.getLocation().tasker().runRepeatedly(taskItself -> tick(), 1, TaskerTime.TICKS);
+        }
+    }
+
+    public void remove(@NotNull ItemSpawnerImpl spawner) {
+        for (int i = 0; i < size; i++) {
+            if (spawners[i] == spawner) {
+                removeAt(i);
+                break;
+            }
+        }
+        dueSpawners.remove(spawner);
+
+        if (size == 0 && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Called when the next spawn of the spawner has moved, e.g. because its interval changed.
+     */
+    public void reschedule(@NotNull ItemSpawnerImpl spawner) {
+        if (dueSpawners.remove(spawner)) {
+            dueSpawners.add(spawner);
+        }
+    }
+
+    /**
+     * Puts a spawner which was waiting for its resources to be picked up back into the queue.
+     */
+    public void resume(@NotNull ItemSpawnerImpl spawner) {
+        if (!dueSpawners.contains(spawner)) {
+            dueSpawners.add(spawner);
+        }
+    }
+
+    private void tick() {
+        var tick = ++currentTick;
+
+        ItemSpawnerImpl spawner;
+        while ((spawner = dueSpawners.peek()) != null && spawner.getNextSpawnTick() <= tick) {
+            dueSpawners.poll();
+            switch (spawner.spawnDue(game, tick)) {
+                case SCHEDULED:
+                    dueSpawners.add(spawner);
+                    break;
+                case STOPPED:
+                    remove(spawner);
+                    break;
+                case WAITING:
+                    // stays out of the queue until resumed
+                    break;
+            }
+        }
+
+        if (tick % REFRESH_INTERVAL_TICKS == 0) {
+            // backwards, so removing the current spawner does not skip any other
+            for (int i = size - 1; i >= 0; i--) {
+                if (i < size && !spawners[i].refresh(game, tick)) {
+                    remove(spawners[i]);
+                }
+            }
+        }
+    }
+
+    private void removeAt(int index) {
+        spawners[index] = spawners[--size];
+        spawners[size] = null;
+    }
+
+    enum State {
+        SCHEDULED,
+        WAITING,
+        STOPPED
+    }
+}
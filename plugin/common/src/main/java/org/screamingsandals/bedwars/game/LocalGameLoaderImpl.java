@@ -33,7 +33,6 @@ import org.screamingsandals.bedwars.game.target.ExpirableTargetBlockImpl;
 import org.screamingsandals.bedwars.game.target.TargetBlockImpl;
 import org.screamingsandals.bedwars.game.target.ExpirableTargetImpl;
 import org.screamingsandals.bedwars.lib.debug.Debug;
-import org.screamingsandals.bedwars.utils.ArenaUtils;
 import org.screamingsandals.bedwars.utils.ConfigurateUtils;
 import org.screamingsandals.bedwars.utils.MiscUtils;
 import org.screamingsandals.bedwars.variants.VariantManagerImpl;
@@ -165,7 +164,7 @@ public class LocalGameLoaderImpl implements LocalGameLoader {
             if (MainConfig.getInstance().node("prevent-spawning-mobs").getBoolean(true)) {
                 for (LivingEntity e : game.getWorld().getEntitiesByClass(LivingEntity.class)) {
                     if (!e.getEntityType().is("minecraft:player") && !e.getEntityType().is("minecraft:armor_stand")) {
-                        if (ArenaUtils.isInArea(e.getLocation(), game.getPos1(), game.getPos2())) {
+                        if (game.isLocationInArena(e.getLocation())) {
                             final Chunk chunk = e.getLocation().getWorld().getChunkAt(e.getLocation());
                             if (chunk != null && !chunk.isLoaded()) {
                                 chunk.load();
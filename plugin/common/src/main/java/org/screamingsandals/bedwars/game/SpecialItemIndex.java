@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.api.Team;
+import org.screamingsandals.bedwars.api.player.BWPlayer;
+import org.screamingsandals.bedwars.api.special.SpecialItem;
+import org.screamingsandals.bedwars.special.TrapImpl;
+import org.screamingsandals.bedwars.utils.BlockPositions;
+import org.screamingsandals.bedwars.utils.LongObjectMap;
+import org.screamingsandals.lib.world.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Active special items of a game, indexed by type, team, player and, for placed traps, by block position.
+ * <p>
+ * Items are told apart by identity, their equals() compares mutable state. Lists of each type are built on the first
+ * query for that type and kept up to date afterwards.
+ */
+public class SpecialItemIndex {
+    private final @NotNull List<@NotNull SpecialItem> items = new ArrayList<>();
+    private final @NotNull Set<@NotNull SpecialItem> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final @NotNull Map<@NotNull Class<?>, @NotNull List<@NotNull SpecialItem>> byType = new HashMap<>();
+    private final @NotNull Map<Team, @NotNull List<@NotNull SpecialItem>> byTeam = new HashMap<>();
+    private final @NotNull Map<BWPlayer, @NotNull List<@NotNull SpecialItem>> byPlayer = new HashMap<>();
+    private final @NotNull LongObjectMap<@NotNull TrapImpl> trapsByPosition = new LongObjectMap<>();
+
+    public boolean add(@NotNull SpecialItem item) {
+        if (!registered.add(item)) {
+            return false;
+        }
+
+        items.add(item);
+        for (var entry : byType.entrySet()) {
+            if (entry.getKey().isInstance(item)) {
+                entry.getValue().add(item);
+            }
+        }
+        byTeam.computeIfAbsent(item.getTeam(), team -> new ArrayList<>()).add(item);
+        byPlayer.computeIfAbsent(item.getPlayer(), player -> new ArrayList<>()).add(item);
+        if (item instanceof TrapImpl && ((TrapImpl) item).isPlaced()) {
+            placeTrap((TrapImpl) item, null);
+        }
+        return true;
+    }
+
+    public boolean remove(@NotNull SpecialItem item) {
+        if (!registered.remove(item)) {
+            return false;
+        }
+
+        removeIdentity(items, item);
+        for (var list : byType.values()) {
+            removeIdentity(list, item);
+        }
+        removeFrom(byTeam, item.getTeam(), item);
+        removeFrom(byPlayer, item.getPlayer(), item);
+        if (item instanceof TrapImpl && ((TrapImpl) item).isPlaced()) {
+            var position = BlockPositions.pack(((TrapImpl) item).getLocation());
+            if (trapsByPosition.get(position) == item) {
+                trapsByPosition.remove(position);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(@NotNull SpecialItem item) {
+        return registered.contains(item);
+    }
+
+    public void clear() {
+        items.clear();
+        registered.clear();
+        byType.clear();
+        byTeam.clear();
+        byPlayer.clear();
+        trapsByPosition.clear();
+    }
+
+    /**
+     * Called once a registered trap has been placed.
+     *
+     * @param previousLocation location the trap was placed at before, traps bought as one stack are a single item
+     */
+    public void placeTrap(@NotNull TrapImpl trap, @Nullable Location previousLocation) {
+        if (!registered.contains(trap)) {
+            return;
+        }
+        if (previousLocation != null) {
+            var previousPosition = BlockPositions.pack(previousLocation);
+            if (trapsByPosition.get(previousPosition) == trap) {
+                trapsByPosition.remove(previousPosition);
+            }
+        }
+        trapsByPosition.put(BlockPositions.pack(trap.getLocation()), trap);
+    }
+
+    public @Nullable TrapImpl getTrapAt(@NotNull Location location) {
+        return trapsByPosition.get(BlockPositions.pack(location));
+    }
+
+    public @NotNull List<@NotNull SpecialItem> getItems() {
+        return items;
+    }
+
+    public @NotNull List<@NotNull SpecialItem> getItems(@NotNull Class<?> type) {
+        var list = byType.get(type);
+        if (list == null) {
+            list = new ArrayList<>();
+            for (var item : items) {
+                if (type.isInstance(item)) {
+                    list.add(item);
+                }
+            }
+            byType.put(type, list);
+        }
+        return list;
+    }
+
+    public @NotNull List<@NotNull SpecialItem> getItemsOfTeam(@NotNull Team team) {
+        return byTeam.getOrDefault(team, List.of());
+    }
+
+    public @NotNull List<@NotNull SpecialItem> getItemsOfPlayer(@NotNull BWPlayer player) {
+        return byPlayer.getOrDefault(player, List.of());
+    }
+
+    private static <K> void removeFrom(@NotNull Map<K, @NotNull List<@NotNull SpecialItem>> index, K key, @NotNull SpecialItem item) {
+        var list = index.get(key);
+        if (list != null) {
+            removeIdentity(list, item);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static void removeIdentity(@NotNull List<@NotNull SpecialItem> list, @NotNull SpecialItem item) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == item) {
+                list.remove(i);
+                return;
+            }
+        }
+    }
+}
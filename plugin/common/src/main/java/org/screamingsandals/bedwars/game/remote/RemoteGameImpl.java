@@ -26,6 +26,7 @@ import org.screamingsandals.bedwars.BedWarsPlugin;
 import org.screamingsandals.bedwars.api.game.GameStatus;
 import org.screamingsandals.bedwars.api.game.RemoteGame;
 import org.screamingsandals.bedwars.api.player.BWPlayer;
+import org.screamingsandals.bedwars.game.GameManagerImpl;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStatePacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.JoinGamePacket;
 import org.screamingsandals.bedwars.game.remote.protocol.ProtocolManagerImpl;
@@ -35,7 +36,6 @@ import org.screamingsandals.bedwars.utils.BungeeUtils;
 import org.screamingsandals.lib.spectator.Component;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.UUID;
 
 @Data
@@ -56,6 +56,18 @@ public class RemoteGameImpl implements RemoteGame {
         this.remoteGameIdentifier = remoteGameIdentifier;
     }
 
+    @Override
+    public void setRemoteServer(@NotNull String remoteServer) {
+        this.remoteServer = remoteServer;
+        GameManagerImpl.getInstance().reindexRemoteGame(this);
+    }
+
+    @Override
+    public void setRemoteGameIdentifier(@Nullable String remoteGameIdentifier) {
+        this.remoteGameIdentifier = remoteGameIdentifier;
+        GameManagerImpl.getInstance().reindexRemoteGame(this);
+    }
+
     @Override
     public @NotNull GameStatus getStatus() {
         if (state == null) {
@@ -187,14 +199,15 @@ public class RemoteGameImpl implements RemoteGame {
         var player = (BedWarsPlayer) p;
 
         if (remoteGameIdentifier != null) {
-            try {
-                ProtocolManagerImpl.getInstance().sendPacket(
-                        remoteServer,
-                        new JoinGamePacket(player.getUniqueId(), remoteGameIdentifier, BedWarsPlugin.getInstance().getServerName())
-                );
-            } catch (IOException e) {
+            ProtocolManagerImpl.getInstance().sendPacketAsync(
+                    remoteServer,
+                    new JoinGamePacket(player.getUniqueId(), remoteGameIdentifier, BedWarsPlugin.getInstance().getServerName())
+            ).exceptionally(e -> {
                 e.printStackTrace();
-            }
+                return null;
+            });
+            // the player may be the last one online, the batch could not be sent after they leave
+            ProtocolManagerImpl.getInstance().flush(remoteServer);
         }
         BungeeUtils.sendBungeeMessage(player, out -> {
             out.writeUTF("Connect");
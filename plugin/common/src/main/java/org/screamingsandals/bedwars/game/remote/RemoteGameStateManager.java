@@ -28,15 +28,27 @@ import org.screamingsandals.bedwars.api.config.GameConfigurationContainer;
 import org.screamingsandals.bedwars.api.game.GameStatus;
 import org.screamingsandals.bedwars.api.game.RemoteGame;
 import org.screamingsandals.bedwars.config.MainConfig;
+import org.screamingsandals.bedwars.events.GameChangedStatusEventImpl;
+import org.screamingsandals.bedwars.events.GameDisabledEventImpl;
+import org.screamingsandals.bedwars.events.GameEnabledEventImpl;
+import org.screamingsandals.bedwars.events.PlayerJoinedEventImpl;
+import org.screamingsandals.bedwars.events.PlayerJoinedTeamEventImpl;
+import org.screamingsandals.bedwars.events.PlayerKilledEventImpl;
+import org.screamingsandals.bedwars.events.PlayerLeaveEventImpl;
+import org.screamingsandals.bedwars.events.PostRebuildingEventImpl;
+import org.screamingsandals.bedwars.events.PostTargetInvalidatedEventImpl;
 import org.screamingsandals.bedwars.game.GameImpl;
 import org.screamingsandals.bedwars.game.GameManagerImpl;
 import org.screamingsandals.bedwars.game.remote.protocol.PacketReceivedEvent;
 import org.screamingsandals.bedwars.game.remote.protocol.ProtocolManagerImpl;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.IgnoreCapableMessenger;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateDeltaPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStatePacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateResyncRequestPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateSubscribePacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.HelloPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
 import org.screamingsandals.bedwars.utils.SignUtils;
 import org.screamingsandals.lib.Server;
 import org.screamingsandals.lib.event.OnEvent;
@@ -57,7 +69,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Service
@@ -68,8 +85,17 @@ public class RemoteGameStateManager {
     private final @NotNull Map<@NotNull UUID, List<@NotNull String>> subscriptions = new HashMap<>();
     private final @NotNull List<@NotNull Subscription> mySubscriptions = new ArrayList<>();
     private final @NotNull LoggerWrapper logger;
+    private final @NotNull Map<@NotNull UUID, OutgoingGameState> outgoingStates = new ConcurrentHashMap<>();
+    private final @NotNull Map<@NotNull String, IncomingGameState> incomingStates = new ConcurrentHashMap<>();
+    private final @NotNull Set<@NotNull UUID> pendingPublishes = ConcurrentHashMap.newKeySet();
+    private final @NotNull Map<@NotNull UUID, RemoteGameImpl> pendingSignUpdates = new ConcurrentHashMap<>();
+    private final @NotNull AtomicBoolean signUpdateScheduled = new AtomicBoolean();
 
     private boolean broadcastStateChangesToEveryone;
+    private boolean deltaStateUpdates;
+    private long keyframeIntervalMillis;
+    private long heartbeatIntervalSeconds;
+    private long publishDelayTicks;
     private boolean preventStateChangeSubscribing;
     private boolean preventIncomingStateChangeProcessing;
     private volatile @Nullable Task task;
@@ -83,6 +109,10 @@ public class RemoteGameStateManager {
         broadcastStateChangesToEveryone = config.node("bungee", "communication", "broadcast-state-changes-to-everyone").getBoolean();
         preventStateChangeSubscribing = config.node("bungee", "communication", "prevent-state-change-subscribing").getBoolean();
         preventIncomingStateChangeProcessing = config.node("bungee", "communication", "prevent-incoming-state-change-processing").getBoolean();
+        deltaStateUpdates = config.node("bungee", "communication", "delta-state-updates").getBoolean(true);
+        keyframeIntervalMillis = TimeUnit.SECONDS.toMillis(config.node("bungee", "communication", "state-keyframe-interval-seconds").getLong(30));
+        heartbeatIntervalSeconds = Math.max(1, config.node("bungee", "communication", "state-heartbeat-interval-seconds").getLong(10));
+        publishDelayTicks = Math.max(1, config.node("bungee", "communication", "state-publish-delay-ticks").getLong(2));
         var preventSendingHelloPacket = config.node("bungee", "communication", "prevent-sending-hello-packet").getBoolean();
 
         if (!preventStateChangeSubscribing) {
@@ -108,7 +138,8 @@ public class RemoteGameStateManager {
                 }
 
                 try {
-                    ProtocolManagerImpl.getInstance().broadcastPacket(new HelloPacket(name));
+                    var protocolManager = ProtocolManagerImpl.getInstance();
+                    protocolManager.broadcastPacket(new HelloPacket(name, protocolManager.getSupportedCodecs(), false));
                 } catch (IOException e) {
                     logger.error("Could not send hello packet to other server", e);
                 }
@@ -144,8 +175,7 @@ public class RemoteGameStateManager {
             return;
         }
 
-        var protocolManager = ProtocolManagerImpl.getInstance();
-
+        // heartbeat only, changes are published by the game events below
         task = Tasker.runAsyncRepeatedly(taskBase -> {
             if (!broadcastStateChangesToEveryone && subscriptions.isEmpty()) {
                 taskBase.cancel();
@@ -153,37 +183,113 @@ public class RemoteGameStateManager {
                 return;
             }
 
-            var serverName = BedWarsPlugin.getInstance().getServerName();
-            if (serverName == null) {
+            GameManagerImpl.getInstance().getLocalGames().forEach(this::publishState);
+        }, heartbeatIntervalSeconds, TaskerTime.SECONDS);
+    }
+
+    /**
+     * Publishes the state of the game after a short delay, so a burst of changes results in a single packet.
+     */
+    public void schedulePublish(@NotNull GameImpl game) {
+        if (task == null || !pendingPublishes.add(game.getUuid())) {
+            return;
+        }
+
+        Tasker.runAsyncDelayed(() -> {
+            pendingPublishes.remove(game.getUuid());
+            publishState(game);
+        }, publishDelayTicks, TaskerTime.TICKS);
+    }
+
+    private void publishState(@NotNull GameImpl game) {
+        @Nullable List<@NotNull String> subscribingServers;
+        if (!broadcastStateChangesToEveryone) {
+            subscribingServers = subscriptions.get(game.getUuid());
+            if (subscribingServers == null) {
                 return;
             }
+        } else {
+            subscribingServers = null;
+        }
 
-            GameManagerImpl.getInstance().getLocalGames().forEach(game -> {
-                @Nullable List<@NotNull String> subscribingServers;
-                if (!broadcastStateChangesToEveryone) {
-                    subscribingServers = subscriptions.get(game.getUuid());
-                    if (subscribingServers == null) {
-                        return;
-                    }
-                } else {
-                    subscribingServers = null;
-                }
+        var serverName = BedWarsPlugin.getInstance().getServerName();
+        if (serverName == null) {
+            return;
+        }
 
-                var gameState = buildStatePacket(game, serverName);
+        if (!deltaStateUpdates) {
+            sendState(buildStatePacket(game, serverName), subscribingServers);
+            return;
+        }
 
-                try {
-                    if (subscribingServers != null) {
-                        for (var server : subscribingServers) {
-                            protocolManager.sendPacket(server, gameState);
-                        }
-                    } else {
-                        protocolManager.broadcastPacket(gameState);
-                    }
-                } catch (IOException e) {
-                    logger.error("An error occurred while trying to send GameStatePacket", e);
+        var outgoing = outgoingStates.computeIfAbsent(game.getUuid(), uuid -> new OutgoingGameState());
+        // the heartbeat and the events may publish at the same time, keep the sequence in order on the wire
+        synchronized (outgoing) {
+            var delta = outgoing.next(buildStatePacket(game, serverName), keyframeIntervalMillis);
+            if (delta != null) {
+                sendState(delta, subscribingServers);
+            }
+        }
+    }
+
+    private void sendState(@NotNull Packet gameState, @Nullable List<@NotNull String> subscribingServers) {
+        var protocolManager = ProtocolManagerImpl.getInstance();
+        try {
+            if (subscribingServers != null) {
+                for (var server : List.copyOf(subscribingServers)) {
+                    protocolManager.sendPacket(server, gameState);
                 }
-            });
-        }, 1, TaskerTime.SECONDS);
+            } else {
+                protocolManager.broadcastPacket(gameState);
+            }
+        } catch (IOException e) {
+            logger.error("An error occurred while trying to send GameStatePacket", e);
+        }
+    }
+
+    @OnEvent
+    public void onPlayerJoined(@NotNull PlayerJoinedEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onPlayerLeave(@NotNull PlayerLeaveEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onPlayerJoinedTeam(@NotNull PlayerJoinedTeamEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onPlayerKilled(@NotNull PlayerKilledEventImpl event) {
+        schedulePublish(event.getGame()); // may have eliminated a team
+    }
+
+    @OnEvent
+    public void onTargetInvalidated(@NotNull PostTargetInvalidatedEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onStatusChanged(@NotNull GameChangedStatusEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onRebuilt(@NotNull PostRebuildingEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onGameEnabled(@NotNull GameEnabledEventImpl event) {
+        schedulePublish(event.getGame());
+    }
+
+    @OnEvent
+    public void onGameDisabled(@NotNull GameDisabledEventImpl event) {
+        schedulePublish(event.getGame());
     }
 
     @OnEvent
@@ -193,20 +299,27 @@ public class RemoteGameStateManager {
         if (packet instanceof GameListPacket) {
             knownGames.put(((GameListPacket) packet).getServer(), ((GameListPacket) packet).getGames());
         } else if (!preventIncomingStateChangeProcessing && packet instanceof GameStatePacket) {
-            var gameState = (GameStatePacket) packet;
-            gameManager.getRemoteGames()
-                    .stream()
-                    .filter(remoteGame ->
-                            remoteGame instanceof RemoteGameImpl
-                                    && gameState.getServer().equals(remoteGame.getRemoteServer())
-                                    && remoteGame.getRemoteGameIdentifier() != null
-                                    && gameState.getName().equals(remoteGame.getRemoteGameIdentifier()) || gameState.getUuid().toString().equals(remoteGame.getRemoteGameIdentifier())
-                    )
-                    .forEach(remoteGame -> {
-                        //noinspection DataFlowIssue
-                        ((RemoteGameImpl) remoteGame).setState(gameState);
-                        Tasker.run(DefaultThreads.GLOBAL_THREAD, () -> SignUtils.updateSigns(remoteGame));
-                    });
+            applyGameState((GameStatePacket) packet);
+        } else if (!preventIncomingStateChangeProcessing && packet instanceof GameStateDeltaPacket) {
+            var delta = (GameStateDeltaPacket) packet;
+            var incoming = incomingStates.computeIfAbsent(delta.getServer() + "/" + delta.getUuid(), key -> new IncomingGameState());
+            var gameState = incoming.apply(delta);
+            if (gameState != null) {
+                applyGameState(gameState);
+            } else if (incoming.shouldRequestResync()) {
+                requestResync(delta);
+            }
+        } else if (packet instanceof GameStateResyncRequestPacket) {
+            var request = (GameStateResyncRequestPacket) packet;
+            var outgoing = outgoingStates.get(request.getGameUuid());
+            var keyframe = outgoing != null ? outgoing.keyframe() : null;
+            if (keyframe != null) {
+                try {
+                    ProtocolManagerImpl.getInstance().sendPacket(request.getRequestingServer(), keyframe);
+                } catch (IOException e) {
+                    logger.error("An error occurred while trying to send GameStateDeltaPacket", e);
+                }
+            }
         } else if (!broadcastStateChangesToEveryone && packet instanceof GameStateSubscribePacket) {
             var localGame = gameManager.getLocalGame(((GameStateSubscribePacket) packet).getGameIdentifier());
             if (localGame.isPresent()) {
@@ -227,12 +340,78 @@ public class RemoteGameStateManager {
                         if (this.task == null) {
                             beginTask();
                         }
+                        sendInitialState(localGame.get(), requestingServer);
                     }
                 }
             }
         }
     }
 
+    private void sendInitialState(@NotNull GameImpl game, @NotNull String server) {
+        var outgoing = deltaStateUpdates ? outgoingStates.get(game.getUuid()) : null;
+        if (outgoing == null) {
+            // nothing was published yet, the first delta is a keyframe anyway
+            schedulePublish(game);
+            return;
+        }
+
+        synchronized (outgoing) {
+            var keyframe = outgoing.keyframe();
+            if (keyframe != null) {
+                try {
+                    ProtocolManagerImpl.getInstance().sendPacket(server, keyframe);
+                } catch (IOException e) {
+                    logger.error("An error occurred while trying to send GameStateDeltaPacket", e);
+                }
+            }
+        }
+        schedulePublish(game);
+    }
+
+    private void applyGameState(@NotNull GameStatePacket gameState) {
+        var byName = gameManager.getRemoteGames(gameState.getServer(), gameState.getName());
+        var byUuid = gameManager.getRemoteGames(gameState.getServer(), gameState.getUuid().toString());
+        for (var remoteGame : byName) {
+            remoteGame.setState(gameState);
+            scheduleSignUpdate(remoteGame);
+        }
+        for (var remoteGame : byUuid) {
+            remoteGame.setState(gameState);
+            scheduleSignUpdate(remoteGame);
+        }
+    }
+
+    /**
+     * Signs of all games updated within a tick are refreshed together in the next one.
+     */
+    private void scheduleSignUpdate(@NotNull RemoteGameImpl remoteGame) {
+        pendingSignUpdates.put(remoteGame.getUuid(), remoteGame);
+        if (signUpdateScheduled.compareAndSet(false, true)) {
+            Tasker.runDelayed(DefaultThreads.GLOBAL_THREAD, () -> {
+                signUpdateScheduled.set(false);
+                for (var uuid : List.copyOf(pendingSignUpdates.keySet())) {
+                    var game = pendingSignUpdates.remove(uuid);
+                    if (game != null) {
+                        SignUtils.updateSigns(game);
+                    }
+                }
+            }, 1, TaskerTime.TICKS);
+        }
+    }
+
+    private void requestResync(@NotNull GameStateDeltaPacket delta) {
+        var thisServer = BedWarsPlugin.getInstance().getServerName();
+        if (thisServer == null) {
+            return;
+        }
+
+        try {
+            ProtocolManagerImpl.getInstance().sendPacket(delta.getServer(), new GameStateResyncRequestPacket(thisServer, delta.getUuid()));
+        } catch (IOException e) {
+            logger.error("An error occurred while trying to send GameStateResyncRequestPacket", e);
+        }
+    }
+
     public @NotNull List<GameListPacket.@NotNull GameEntry> getKnownGames(@NotNull String server) {
         return knownGames.get(server);
     }
@@ -289,6 +468,91 @@ public class RemoteGameStateManager {
         private final @NotNull String gameIdentifier;
     }
 
+    /**
+     * Sending side of a delta stream: remembers what the receivers were told so far.
+     */
+    private static class OutgoingGameState {
+        private final long epoch = ThreadLocalRandom.current().nextLong();
+        private int sequence;
+        private @Nullable GameStatePacket sentState; // as the receivers see it, generation time is when the timing was sent
+        private long lastKeyframe;
+
+        public synchronized @Nullable GameStateDeltaPacket next(@NotNull GameStatePacket current, long keyframeIntervalMillis) {
+            var now = System.currentTimeMillis();
+            var keyframe = sentState == null || now - lastKeyframe >= keyframeIntervalMillis;
+            var timingChanged = keyframe || isTimingChanged(sentState, current, now);
+            var delta = GameStateDeltaPacket.between(epoch, sequence + 1, keyframe ? null : sentState, current, timingChanged, timingChanged ? now : sentState.getGenerationTime());
+            if (delta == null) {
+                return null;
+            }
+
+            sequence++;
+            sentState = delta.applyTo(sentState);
+            if (keyframe) {
+                lastKeyframe = now;
+            }
+            return delta;
+        }
+
+        public synchronized @Nullable GameStateDeltaPacket keyframe() {
+            if (sentState == null) {
+                return null;
+            }
+            return GameStateDeltaPacket.between(epoch, sequence, null, sentState, true, sentState.getGenerationTime());
+        }
+
+        private static boolean isTimingChanged(@NotNull GameStatePacket sent, @NotNull GameStatePacket current, long now) {
+            if (sent.isTimeMoving() != current.isTimeMoving() || !Objects.equals(sent.getMaxTime(), current.getMaxTime())) {
+                return true;
+            }
+            // receivers extrapolate the elapsed time of a moving clock themselves
+            var expected = sent.getElapsed() + (sent.isTimeMoving() ? (int) ((now - sent.getGenerationTime()) / 1000) : 0);
+            return Math.abs(expected - current.getElapsed()) > 1;
+        }
+    }
+
+    /**
+     * Receiving side of a delta stream.
+     */
+    private static class IncomingGameState {
+        private long epoch;
+        private int sequence;
+        private @Nullable GameStatePacket state;
+        private long lastResyncRequest;
+
+        /**
+         * @return the new state, or null if the delta could not be applied
+         */
+        public synchronized @Nullable GameStatePacket apply(@NotNull GameStateDeltaPacket delta) {
+            if (state != null && delta.getEpoch() != epoch) {
+                // the sender has restarted and numbers its packets from the beginning again
+                if (!delta.isKeyframe()) {
+                    return null;
+                }
+            } else if (delta.isKeyframe()) {
+                if (state != null && delta.getSequence() < sequence) {
+                    return null; // an older keyframe arriving late
+                }
+            } else if (state == null || delta.getSequence() != sequence + 1) {
+                return null;
+            }
+
+            state = delta.applyTo(state);
+            epoch = delta.getEpoch();
+            sequence = delta.getSequence();
+            return state;
+        }
+
+        public synchronized boolean shouldRequestResync() {
+            var now = System.currentTimeMillis();
+            if (now - lastResyncRequest < 1000) {
+                return false;
+            }
+            lastResyncRequest = now;
+            return true;
+        }
+    }
+
     public static @NotNull GameStatePacket buildStatePacket(@NotNull GameImpl game, @NotNull String serverName) {
         int maxTime;
         switch (game.getStatus()) {
@@ -31,12 +31,14 @@ import org.screamingsandals.bedwars.game.remote.RemoteGameStateManager;
 import org.screamingsandals.bedwars.game.remote.ServerNameChangeEvent;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.BungeeCordMessenger;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.DummyMessenger;
+import org.screamingsandals.bedwars.game.remote.protocol.messaging.LocalMessenger;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.Messenger;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.ServerNameAwareMessenger;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.SocketMessenger;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListRequestPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.HelloPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.MinigameServerInfoPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.MinigameServerInfoRequestPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
@@ -46,6 +48,7 @@ import org.screamingsandals.lib.event.EventManager;
 import org.screamingsandals.lib.event.OnEvent;
 import org.screamingsandals.lib.plugin.ServiceManager;
 import org.screamingsandals.lib.tasker.Tasker;
+import org.screamingsandals.lib.tasker.TaskerTime;
 import org.screamingsandals.lib.utils.Preconditions;
 import org.screamingsandals.lib.utils.ProxyType;
 import org.screamingsandals.lib.utils.annotations.Service;
@@ -54,6 +57,8 @@ import org.screamingsandals.lib.utils.annotations.methods.OnPreDisable;
 import org.screamingsandals.lib.utils.logger.LoggerWrapper;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -72,22 +77,45 @@ public class ProtocolManagerImpl extends ProtocolManager {
     @OnPostEnable
     public void onPostEnable() {
         var communicationType = MainConfig.getInstance().node("bungee", "communication", "type").getString("bungee");
+        var codecs = MainConfig.getInstance().node("bungee", "communication", "compact-codec").getBoolean(true) ? CODEC_COMPACT : 0;
         switch (communicationType) {
             case "bungee": {
                 if (Server.getProxyType() != ProxyType.NONE) {
+                    codecs |= CODEC_BATCHED_FRAMES;
                     registration = CustomPayload.registerIncomingChannel("BungeeCord", (player, bytes) -> {
+                        List<byte @NotNull []> transformedBytes;
                         try {
-                            var transformedBytes = getMessenger().incomingPacketTransformer(bytes);
-                            if (transformedBytes == null) {
-                                return;
-                            }
-
-                            processIncoming(transformedBytes);
+                            transformedBytes = getMessenger().incomingPacketTransformer(bytes);
                         } catch (Exception e) {
                             logger.error("Error while receiving message using BungeeCord plugin messaging channel", e);
+                            return;
+                        }
+                        if (transformedBytes == null) {
+                            return;
+                        }
+
+                        for (var payload : transformedBytes) {
+                            try {
+                                processIncoming(payload);
+                            } catch (Exception e) {
+                                logger.error("Error while receiving message using BungeeCord plugin messaging channel", e);
+                            }
                         }
                     });
-                    messenger = new BungeeCordMessenger(payload -> CustomPayload.send("BungeeCord", payload));
+
+                    var batchingConfig = MainConfig.getInstance().node("bungee", "communication", "batching");
+                    if (batchingConfig.node("enabled").getBoolean(true)) {
+                        var flushDelay = Math.max(1, batchingConfig.node("flush-delay-ticks").getInt(1));
+                        var batchBroadcasts = batchingConfig.node("batch-broadcasts").getBoolean(false);
+                        messenger = new BungeeCordMessenger(
+                                payload -> CustomPayload.send("BungeeCord", payload),
+                                flush -> Tasker.runAsyncDelayed(flush, flushDelay, TaskerTime.TICKS),
+                                target -> BungeeCordMessenger.BROADCAST_TARGET.equals(target) ? batchBroadcasts : peerSupports(target, CODEC_BATCHED_FRAMES),
+                                (target, lostPayloads, e) -> logger.error("Could not send a batch of {} packet(s) to {}, the packets were lost", lostPayloads, target, e)
+                        );
+                    } else {
+                        messenger = new BungeeCordMessenger(payload -> CustomPayload.send("BungeeCord", payload));
+                    }
                     if (Server.getProxyType() == ProxyType.VELOCITY) {
                         logger.warn(
                                 "Velocity does not implement the BungeeCord plugin messaging channel the same way as BungeeCord does," +
@@ -100,6 +128,7 @@ public class ProtocolManagerImpl extends ProtocolManager {
             case "socket": {
                 var host = MainConfig.getInstance().node("bungee", "communication", "socket", "host").getString("localhost");
                 var port = MainConfig.getInstance().node("bungee", "communication", "socket", "port").getInt(9000);
+                var queueSize = MainConfig.getInstance().node("bungee", "communication", "socket", "queue-size").getInt(SocketMessenger.DEFAULT_QUEUE_CAPACITY);
                 var serverName = BedWarsPlugin.getInstance().getServerName();
                 var messenger = new SocketMessenger(host, port, serverName, bytes -> {
                     try {
@@ -107,14 +136,38 @@ public class ProtocolManagerImpl extends ProtocolManager {
                     } catch (Exception e) {
                         logger.error("Error while receiving message using standard socket", e);
                     }
-                }, Tasker::runAsync);
+                }, Tasker::runAsync, Math.max(16, queueSize));
                 this.messenger = messenger;
                 if (serverName != null) {
-                    try {
-                        messenger.startConnection();
-                    } catch (IOException e) {
-                        logger.error("An error occurred while starting socket messenger", e);
-                    }
+                    messenger.startConnection();
+                }
+                break;
+            }
+            case "local": {
+                var localConfig = MainConfig.getInstance().node("bungee", "communication", "local");
+                var directory = localConfig.node("directory").getString("");
+                var queueSize = localConfig.node("queue-size").getInt(LocalMessenger.DEFAULT_QUEUE_CAPACITY);
+                var messenger = new LocalMessenger(
+                        directory.isEmpty() ? Path.of(System.getProperty("java.io.tmpdir"), "screaming-bedwars") : Path.of(directory),
+                        localConfig.node("prefer-unix-sockets").getBoolean(true),
+                        BedWarsPlugin.getInstance().getServerName(),
+                        bytes -> {
+                            try {
+                                processIncoming(bytes);
+                            } catch (Exception e) {
+                                logger.error("Error while receiving message using local messenger", e);
+                            }
+                        },
+                        Tasker::runAsync,
+                        Math.max(16, queueSize),
+                        (message, e) -> logger.error(message, e)
+                );
+                this.messenger = messenger;
+                try {
+                    messenger.start();
+                    logger.info("Communicating with servers on this machine using {}", messenger.getTransportDescription());
+                } catch (IOException e) {
+                    logger.error("Could not register this server for local communication", e);
                 }
                 break;
             }
@@ -124,6 +177,7 @@ public class ProtocolManagerImpl extends ProtocolManager {
                 break;
             }
         }
+        setSupportedCodecs(codecs);
 
     }
 
@@ -140,14 +194,41 @@ public class ProtocolManagerImpl extends ProtocolManager {
             CustomPayload.unregisterIncomingChannel(registration);
             registration = null;
         }
+        if (messenger instanceof BungeeCordMessenger) {
+            ((BungeeCordMessenger) messenger).flush();
+        } else if (messenger instanceof SocketMessenger) {
+            ((SocketMessenger) messenger).close();
+        } else if (messenger instanceof LocalMessenger) {
+            ((LocalMessenger) messenger).close();
+        }
         messenger = null;
     }
 
+    /**
+     * Sends the packets still waiting in a batch for the server without waiting for the batching window.
+     */
+    public void flush(@NotNull String server) {
+        if (messenger instanceof BungeeCordMessenger) {
+            ((BungeeCordMessenger) messenger).flush(server);
+        }
+    }
+
     @Override
     protected void receivePacket0(@NotNull Packet packet) {
         EventManager.fire(new PacketReceivedEvent(packet));
 
-        if (packet instanceof GameListRequestPacket) {
+        if (packet instanceof HelloPacket) {
+            var hello = (HelloPacket) packet;
+            var serverName = BedWarsPlugin.getInstance().getServerName();
+            // answer so the other server learns which codecs we can read, the answer itself is not answered
+            if (!hello.isReply() && getSupportedCodecs() != 0 && serverName != null && !serverName.equals(hello.getServerName())) {
+                sendPacketAsync(hello.getServerName(), new HelloPacket(serverName, getSupportedCodecs(), true))
+                        .exceptionally(e -> {
+                            logger.error("An error occurred while trying to answer HelloPacket", e);
+                            return null;
+                        });
+            }
+        } else if (packet instanceof GameListRequestPacket) {
             var gameList = new GameListPacket(
                     Objects.requireNonNull(BedWarsPlugin.getInstance().getServerName(), "This server does not know its name yet!"),
                     GameManagerImpl.getInstance()
@@ -162,15 +243,11 @@ public class ProtocolManagerImpl extends ProtocolManager {
             );
             var requestingServer = ((GameListRequestPacket) packet).getRequestingServer();
 
-            try {
-                if (requestingServer != null) {
-                    sendPacket(requestingServer, gameList);
-                } else {
-                    broadcastPacket(gameList);
-                }
-            } catch (IOException e) {
+            var future = requestingServer != null ? sendPacketAsync(requestingServer, gameList) : broadcastPacketAsync(gameList);
+            future.exceptionally(e -> {
                 logger.error("An error occurred while trying to send GameListRequestPacket", e);
-            }
+                return null;
+            });
         } else if (packet instanceof GameStateRequestPacket) {
             var serverName = Objects.requireNonNull(BedWarsPlugin.getInstance().getServerName(), "This server does not know its name yet!");
             var gameId = ((GameStateRequestPacket) packet).getGameIdentifier();
@@ -185,15 +262,11 @@ public class ProtocolManagerImpl extends ProtocolManager {
 
             var requestingServer = ((GameStateRequestPacket) packet).getRequestingServer();
 
-            try {
-                if (requestingServer != null) {
-                    sendPacket(requestingServer, gameState);
-                } else {
-                    broadcastPacket(gameState);
-                }
-            } catch (IOException e) {
+            var future = requestingServer != null ? sendPacketAsync(requestingServer, gameState) : broadcastPacketAsync(gameState);
+            future.exceptionally(e -> {
                 logger.error("An error occurred while trying to send GameStatePacket", e);
-            }
+                return null;
+            });
         } else if (packet instanceof MinigameServerInfoRequestPacket) {
             var minigameServerInfo = new MinigameServerInfoPacket(
                     Objects.requireNonNull(BedWarsPlugin.getInstance().getServerName(), "This server does not know its name yet!"),
@@ -202,15 +275,11 @@ public class ProtocolManagerImpl extends ProtocolManager {
             );
             var requestingServer = ((MinigameServerInfoRequestPacket) packet).getRequestingServer();
 
-            try {
-                if (requestingServer != null) {
-                    sendPacket(requestingServer, minigameServerInfo);
-                } else {
-                    broadcastPacket(minigameServerInfo);
-                }
-            } catch (IOException e) {
+            var future = requestingServer != null ? sendPacketAsync(requestingServer, minigameServerInfo) : broadcastPacketAsync(minigameServerInfo);
+            future.exceptionally(e -> {
                 logger.error("An error occurred while trying to send MinigameServerInfoPacket", e);
-            }
+                return null;
+            });
         }
     }
 
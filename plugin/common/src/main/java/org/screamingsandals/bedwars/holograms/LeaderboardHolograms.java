@@ -53,6 +53,7 @@ import org.spongepowered.configurate.ConfigurateException;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
@@ -70,6 +71,7 @@ public class LeaderboardHolograms {
     private ArrayList<SerializableLocation> hologramLocations;
     private Map<Location, Hologram> holograms;
     private List<LeaderboardEntryImpl> entries;
+    private final AtomicBoolean entriesUpdateScheduled = new AtomicBoolean();
 
     @ShouldRunControllable
     public static boolean isEnabled() {
@@ -103,6 +105,22 @@ public class LeaderboardHolograms {
         updateHolograms();
     }
 
+    /**
+     * Coalesces score changes into one entries update after the configured delay.
+     */
+    public void scheduleEntriesUpdate() {
+        if (this.hologramLocations == null || this.hologramLocations.isEmpty()) {
+            return;
+        }
+
+        if (entriesUpdateScheduled.compareAndSet(false, true)) {
+            Tasker.runAsyncDelayed(() -> {
+                entriesUpdateScheduled.set(false);
+                updateEntries();
+            }, Math.max(1, mainConfig.node("holograms", "leaderboard", "update-delay-ticks").getInt(20)), TaskerTime.TICKS);
+        }
+    }
+
     @OnPostEnable
     public void loadHolograms() {
         if (this.hologramLocations != null || this.holograms != null) {
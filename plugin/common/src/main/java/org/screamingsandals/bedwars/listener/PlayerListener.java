@@ -76,6 +76,7 @@ import org.screamingsandals.lib.tasker.TaskerTime;
 import org.screamingsandals.lib.utils.ProxyType;
 import org.screamingsandals.lib.utils.ResourceLocation;
 import org.screamingsandals.lib.utils.annotations.Service;
+import org.screamingsandals.lib.world.Location;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -575,8 +576,8 @@ public class PlayerListener {
                 Debug.info(event.player().getName() + " attempted to place a block, allowed");
             }
         } else if (MainConfig.getInstance().node("preventArenaFromGriefing").getBoolean()) {
-            for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-                if (game.getStatus() != GameStatus.DISABLED && ArenaUtils.isInArea(event.block().location(), game.getPos1(), game.getPos2())) {
+            for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.block().location())) {
+                if (game.getStatus() != GameStatus.DISABLED) {
                     event.cancelled(true);
                     Debug.info(event.player().getName() + " attempted to place a block in protected area while not playing BedWars game, canceled");
                     return;
@@ -620,8 +621,8 @@ public class PlayerListener {
                 }
             }
         } else if (MainConfig.getInstance().node("preventArenaFromGriefing").getBoolean()) {
-            for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-                if (game.getStatus() != GameStatus.DISABLED && ArenaUtils.isInArea(event.block().location(), game.getPos1(), game.getPos2())) {
+            for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.block().location())) {
+                if (game.getStatus() != GameStatus.DISABLED) {
                     event.cancelled(true);
                     Debug.info(event.player().getName() + " attempted to break a block in protected area while not in BedWars game, canceled");
                     return;
@@ -1172,12 +1173,9 @@ public class PlayerListener {
         if (PlayerManagerImpl.getInstance().isPlayerInGame(event.player())) {
             event.cancelled(true);
         } else {
-            for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-                if (ArenaUtils.isInArea(event.bed().location(), game.getPos1(), game.getPos2())) {
-                    event.cancelled(true);
-                    Debug.info(event.player().getName() + " tried to sleep");
-                    return;
-                }
+            if (!GameManagerImpl.getInstance().getLocalGamesAt(event.bed().location()).isEmpty()) {
+                event.cancelled(true);
+                Debug.info(event.player().getName() + " tried to sleep");
             }
         }
     }
@@ -1381,7 +1379,7 @@ public class PlayerListener {
             var game = gPlayer.getGame();
             if (game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.DAMAGE_WHEN_PLAYER_IS_NOT_IN_ARENA, false) && game.getStatus() == GameStatus.RUNNING
                     && !gPlayer.isSpectator()) {
-                if (!ArenaUtils.isInArea(event.newLocation(), game.getPos1(), game.getPos2())) {
+                if (!game.isLocationInArena(event.newLocation())) {
                     var armor = player.getAttribute(AttributeType.of("minecraft:generic.armor"));
                     var armorToughnessType = AttributeType.ofNullable("minecraft:generic.armor_toughness");
                     var armorToughness = armorToughnessType != null ? player.getAttribute(armorToughnessType) : null;
@@ -1399,7 +1397,7 @@ public class PlayerListener {
                     Debug.info(player.getName() + " is doing prohibited move, damaging");
                 }
             } else if (game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.PREVENT_SPECTATOR_FROM_FLYING_AWAY, false) && gPlayer.isSpectator() && (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING)) {
-                if (!ArenaUtils.isInArea(event.newLocation(), game.getPos1(), game.getPos2())) {
+                if (!game.isLocationInArena(event.newLocation())) {
                     event.cancelled(true);
                     Debug.info(player.getName() + " is doing prohibited move, cancelling");
                 }
@@ -1461,8 +1459,8 @@ public class PlayerListener {
                 Debug.info(player.getName() + " placed liquid, cancelling");
             }
         } else if (MainConfig.getInstance().node("preventArenaFromGriefing").getBoolean()) {
-            for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-                if (game.getStatus() != GameStatus.DISABLED && ArenaUtils.isInArea(event.blockClicked().location(), game.getPos1(), game.getPos2())) {
+            for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.blockClicked().location())) {
+                if (game.getStatus() != GameStatus.DISABLED) {
                     event.cancelled(true);
                     Debug.info(player.getName() + " is doing prohibited actions in protected area while not playing BedWars");
                     return;
@@ -1477,12 +1475,10 @@ public class PlayerListener {
             return;
         }
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.entity().getLocation())) {
             if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                if (ArenaUtils.isInArea(event.entity().getLocation(), game.getPos1(), game.getPos2())) {
-                    EntitiesManagerImpl.getInstance().addEntityToGame(event.entity(), game);
-                    break;
-                }
+                EntitiesManagerImpl.getInstance().addEntityToGame(event.entity(), game);
+                break;
             }
         }
     }
@@ -1501,8 +1497,15 @@ public class PlayerListener {
                 event.cancelled(true);
                 Debug.info(player.getName() + " tried to pick up the item in lobby or as spectator");
             } else {
-                for (var spawner : game.getSpawners()) {
-                    spawner.remove(event.item());
+                var spawner = game.getResourceSpawner(event.item());
+                if (spawner != null) {
+                    if (spawner.isVirtualStackDisplay(event.item())) {
+                        // the display item stays, the player gets the stack it stands for
+                        event.cancelled(true);
+                        spawner.pickUpVirtualStack(gPlayer);
+                    } else {
+                        spawner.remove(event.item());
+                    }
                 }
             }
         }
@@ -1526,17 +1529,34 @@ public class PlayerListener {
             return;
         }
 
+        if (isMergeDisabled(event.entity().getLocation()) || isMergeDisabled(event.target().getLocation())) {
+            event.cancelled(true);
+            return;
+        }
+
         for (var game : GameManagerImpl.getInstance().getLocalGames()) {
+            var spawner = game.getResourceSpawner(event.entity());
+            var targetSpawner = game.getResourceSpawner(event.target());
+            if ((spawner != null && spawner.isVirtualStackDisplay(event.entity()))
+                    || (targetSpawner != null && targetSpawner.isVirtualStackDisplay(event.target()))) {
+                event.cancelled(true);
+                return;
+            }
+            if (spawner != null) {
+                game.mergeSpawnedResource(event.entity(), event.target());
+                return;
+            }
+        }
+    }
+
+    private boolean isMergeDisabled(Location location) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(location)) {
             if (game.getStatus() == GameStatus.RUNNING
                     && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.SPAWNER_DISABLE_MERGE, false)) {
-
-                if (ArenaUtils.isInArea(event.entity().getLocation(), game.getPos1(), game.getPos2())
-                        || ArenaUtils.isInArea(event.target().getLocation(), game.getPos1(), game.getPos2())) {
-                    event.cancelled(true);
-                    return;
-                }
+                return true;
             }
         }
+        return false;
     }
 
     @OnEvent
@@ -1555,7 +1575,7 @@ public class PlayerListener {
             return;
         }
 
-        if (!ArenaUtils.isInArea(event.newLocation(), game.get().getPos1(), game.get().getPos2())) {
+        if (!game.get().isLocationInArena(event.newLocation())) {
             event.cancelled(true);
         }
     }
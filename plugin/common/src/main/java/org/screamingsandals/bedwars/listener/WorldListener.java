@@ -28,7 +28,6 @@ import org.screamingsandals.bedwars.entities.EntitiesManagerImpl;
 import org.screamingsandals.bedwars.game.GameManagerImpl;
 import org.screamingsandals.bedwars.game.target.TargetBlockImpl;
 import org.screamingsandals.bedwars.player.PlayerManagerImpl;
-import org.screamingsandals.bedwars.utils.ArenaUtils;
 import org.screamingsandals.lib.entity.projectile.ProjectileEntity;
 import org.screamingsandals.lib.event.Cancellable;
 import org.screamingsandals.lib.event.EventExecutionOrder;
@@ -93,14 +92,12 @@ public class WorldListener {
     }
 
     public void onBlockChange(BlockPlacement block, Cancellable cancellable) {
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(block.location())) {
             if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                if (ArenaUtils.isInArea(block.location(), game.getPos1(), game.getPos2())) {
-                    if (!BedWarsPlugin.isFarmBlock(block.block()) && !game.isBlockAddedDuringGame(block.location())) {
-                        cancellable.cancelled(true);
-                    }
-                    return;
+                if (!BedWarsPlugin.isFarmBlock(block.block()) && !game.isBlockAddedDuringGame(block.location())) {
+                    cancellable.cancelled(true);
                 }
+                return;
             }
         }
     }
@@ -112,11 +109,9 @@ public class WorldListener {
         }
 
         event.changedBlockStates().removeIf(blockState -> {
-            for (var game : GameManagerImpl.getInstance().getLocalGames()) {
+            for (var game : GameManagerImpl.getInstance().getLocalGamesAt(blockState.location())) {
                 if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                    if (ArenaUtils.isInArea(blockState.location(), game.getPos1(), game.getPos2())) {
-                        return !game.isBlockAddedDuringGame(blockState.location());
-                    }
+                    return !game.isBlockAddedDuringGame(blockState.location());
                 }
             }
             return false;
@@ -150,38 +145,37 @@ public class WorldListener {
     public void onExplode(Location location, Collection<BlockPlacement> blockList, org.screamingsandals.lib.event.Cancellable cancellable, boolean originatedInArena) {
         final var breakableExplosions = MainConfig.getInstance().node("breakable", "explosions").getBoolean(true);
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-            if (ArenaUtils.isInArea(location, game.getPos1(), game.getPos2())) {
-                if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                    final var destroyPlacedBlocksByExplosion = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.DESTROY_PLACED_BLOCKS_BY_EXPLOSION_ENABLED, true);
-                    final var explosionExceptionTypeName = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.DESTROY_PLACED_BLOCKS_BY_EXPLOSION_BLACKLIST, List.of()).toArray();
-                    blockList.removeIf(block -> {
-                        if (!game.isBlockAddedDuringGame(block.location())) {
-                            if (game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.TARGET_BLOCK_ALLOW_DESTROYING_WITH_EXPLOSIONS, false)) {
-                                for (var team : game.getActiveTeams()) {
-                                    if (team.getTarget() instanceof TargetBlockImpl && ((TargetBlockImpl) team.getTarget()).getTargetBlock().equals(block.location())) {
-                                        game.internalProcessInvalidation(team, team.getTarget(), null, TargetInvalidationReason.TARGET_BLOCK_EXPLODED);
-                                        return true;
-                                    }
+        var cancel = originatedInArena;
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(location)) {
+            if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
+                final var destroyPlacedBlocksByExplosion = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.DESTROY_PLACED_BLOCKS_BY_EXPLOSION_ENABLED, true);
+                final var explosionExceptionTypeName = game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.DESTROY_PLACED_BLOCKS_BY_EXPLOSION_BLACKLIST, List.of()).toArray();
+                blockList.removeIf(block -> {
+                    if (!game.isBlockAddedDuringGame(block.location())) {
+                        if (game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.TARGET_BLOCK_ALLOW_DESTROYING_WITH_EXPLOSIONS, false)) {
+                            for (var team : game.getActiveTeams()) {
+                                if (team.getTarget() instanceof TargetBlockImpl && ((TargetBlockImpl) team.getTarget()).getTargetBlock().equals(block.location())) {
+                                    game.internalProcessInvalidation(team, team.getTarget(), null, TargetInvalidationReason.TARGET_BLOCK_EXPLODED);
+                                    return true;
                                 }
                             }
-                            if (breakableExplosions && BedWarsPlugin.isBreakableBlock(block.block())) {
-                                game.getRegion().putOriginalBlock(block.location(), block.blockSnapshot());
-                                return false;
-                            } else {
-                                return true;
-                            }
                         }
-                        return block.block().is(explosionExceptionTypeName) || !destroyPlacedBlocksByExplosion;
-                    });
-                } else {
-                    cancellable.cancelled(true);
-                }
+                        if (breakableExplosions && BedWarsPlugin.isBreakableBlock(block.block())) {
+                            game.getRegion().putOriginalBlock(block.location(), block.blockSnapshot());
+                            return false;
+                        } else {
+                            return true;
+                        }
+                    }
+                    return block.block().is(explosionExceptionTypeName) || !destroyPlacedBlocksByExplosion;
+                });
                 return;
             }
+            // explosions in arenas which are not running are cancelled, unless a running arena overlapping it handles them
+            cancel = true;
         }
 
-        if (originatedInArena) {
+        if (cancel) {
             cancellable.cancelled(true);
         }
     }
@@ -192,12 +186,10 @@ public class WorldListener {
             return;
         }
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.block().location())) {
             if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                if (ArenaUtils.isInArea(event.block().location(), game.getPos1(), game.getPos2())) {
-                    game.getRegion().addBuiltDuringGame(event.block().location());
-                    return;
-                }
+                game.getRegion().addBuiltDuringGame(event.block().location());
+                return;
             }
         }
     }
@@ -208,12 +200,10 @@ public class WorldListener {
             return;
         }
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.getLocation())) {
             if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                if (ArenaUtils.isInArea(event.getLocation(), game.getPos1(), game.getPos2())) {
-                    event.cancelled(true);
-                    return;
-                }
+                event.cancelled(true);
+                return;
             }
         }
     }
@@ -228,7 +218,7 @@ public class WorldListener {
             if (game.getStatus() != GameStatus.DISABLED)
                 // prevent creature spawn everytime, not just in game
                 if (/*(game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) &&*/ game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.PREVENT_SPAWNING_MOBS, false)) {
-                    if (ArenaUtils.isInArea(event.entity().getLocation(), game.getPos1(), game.getPos2())) {
+                    if (game.isLocationInArena(event.entity().getLocation())) {
                         event.cancelled(true);
                         return;
                         //}
@@ -250,18 +240,16 @@ public class WorldListener {
             return;
         }
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-            if (ArenaUtils.isInArea(event.sourceBlock().location(), game.getPos1(), game.getPos2())) {
-                if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                    var block = event.facedBlock();
-                    if (block.block().isAir() || game.isBlockAddedDuringGame(block.location())) {
-                        game.getRegion().addBuiltDuringGame(block.location());
-                    } else {
-                        event.cancelled(true);
-                    }
-                } else if (game.getStatus() != GameStatus.DISABLED) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.sourceBlock().location())) {
+            if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
+                var block = event.facedBlock();
+                if (block.block().isAir() || game.isBlockAddedDuringGame(block.location())) {
+                    game.getRegion().addBuiltDuringGame(block.location());
+                } else {
                     event.cancelled(true);
                 }
+            } else if (game.getStatus() != GameStatus.DISABLED) {
+                event.cancelled(true);
             }
         }
 
@@ -273,26 +261,24 @@ public class WorldListener {
             return;
         }
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-            if (ArenaUtils.isInArea(event.block().location(), game.getPos1(), game.getPos2())) {
-                if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
-                    if (event.entity().getEntityType().is("FALLING_BLOCK")
-                            && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.ALLOW_BLOCK_FALLING, false)) {
-                        if (!event.block().block().equals(event.to())) {
-                            if (!game.isBlockAddedDuringGame(event.block().location())) {
-                                if (!event.block().block().isAir()) {
-                                    game.getRegion().putOriginalBlock(event.block().location(), Objects.requireNonNull(event.block().blockSnapshot()));
-                                }
-                                game.getRegion().addBuiltDuringGame(event.block().location());
+        for (var game : GameManagerImpl.getInstance().getLocalGamesAt(event.block().location())) {
+            if (game.getStatus() == GameStatus.RUNNING || game.getStatus() == GameStatus.GAME_END_CELEBRATING) {
+                if (event.entity().getEntityType().is("FALLING_BLOCK")
+                        && game.getConfigurationContainer().getOrDefault(GameConfigurationContainer.ALLOW_BLOCK_FALLING, false)) {
+                    if (!event.block().block().equals(event.to())) {
+                        if (!game.isBlockAddedDuringGame(event.block().location())) {
+                            if (!event.block().block().isAir()) {
+                                game.getRegion().putOriginalBlock(event.block().location(), Objects.requireNonNull(event.block().blockSnapshot()));
                             }
+                            game.getRegion().addBuiltDuringGame(event.block().location());
                         }
-                        return; // allow block fall
                     }
+                    return; // allow block fall
                 }
+            }
 
-                if (game.getStatus() != GameStatus.DISABLED) {
-                    event.cancelled(true);
-                }
+            if (game.getStatus() != GameStatus.DISABLED) {
+                event.cancelled(true);
             }
         }
     }
@@ -312,8 +298,8 @@ public class WorldListener {
     public void onChunkUnload(ChunkUnloadEvent unload) {
         var chunk = unload.chunk();
 
-        for (var game : GameManagerImpl.getInstance().getLocalGames()) {
-            if (game.getStatus() != GameStatus.DISABLED && game.getStatus() != GameStatus.WAITING && ArenaUtils.isChunkInArea(chunk, game.getPos1(), game.getPos2())) {
+        for (var game : GameManagerImpl.getInstance().getLocalGamesInChunk(chunk)) {
+            if (game.getStatus() != GameStatus.DISABLED && game.getStatus() != GameStatus.WAITING) {
                 unload.cancelled(true);
                 return;
             }
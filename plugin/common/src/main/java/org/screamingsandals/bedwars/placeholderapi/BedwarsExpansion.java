@@ -257,11 +257,17 @@ public class BedwarsExpansion extends PlaceholderExpansion {
             }
             playerName = playerName.substring(0, index);
 
-            var stats = PlayerStatisticManager.getInstance().getStatistic(
-                    Players.getOfflinePlayer(playerName)
-            );
+            var statisticManager = PlayerStatisticManager.getInstance();
+            var offlinePlayer = Players.getOfflinePlayer(playerName);
+            if (offlinePlayer == null) {
+                return null;
+            }
+            var uuid = offlinePlayer.getUuid();
+            var stats = statisticManager.getLoadedStatistic(uuid);
 
             if (stats == null) {
+                // placeholders are requested from the main thread, load it for the next request instead of blocking
+                statisticManager.getStatisticAsync(uuid);
                 return null;
             }
 
@@ -282,6 +288,8 @@ public class BedwarsExpansion extends PlaceholderExpansion {
                     return Component.text(stats.getGames());
                 case "kd":
                     return Component.text(stats.getKD());
+                case "rank":
+                    return Component.text(PlayerStatisticManager.getInstance().getRank(stats.getUuid()));
             }
         }
 
@@ -551,6 +559,8 @@ public class BedwarsExpansion extends PlaceholderExpansion {
                     return Component.text(stats.getGames());
                 case "kd":
                     return Component.text(stats.getKD());
+                case "rank":
+                    return Component.text(PlayerStatisticManager.getInstance().getRank(stats.getUuid()));
             }
         }
 
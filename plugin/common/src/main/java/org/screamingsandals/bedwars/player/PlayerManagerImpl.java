@@ -20,6 +20,7 @@
 package org.screamingsandals.bedwars.player;
 
 import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
 import org.screamingsandals.bedwars.api.player.PlayerManager;
 import org.screamingsandals.bedwars.game.GameImpl;
 import org.screamingsandals.bedwars.game.GameManagerImpl;
@@ -29,10 +30,10 @@ import org.screamingsandals.lib.plugin.ServiceManager;
 import org.screamingsandals.lib.utils.annotations.Service;
 import org.screamingsandals.lib.utils.annotations.ServiceDependencies;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @ServiceDependencies(dependsOn = {
@@ -40,7 +41,8 @@ import java.util.UUID;
 })
 @RequiredArgsConstructor
 public class PlayerManagerImpl implements PlayerManager {
-    private final List<BedWarsPlayer> players = new ArrayList<>();
+    // concurrent, because it is also read from async tasks (sidebars, tab lists)
+    private final Map<UUID, BedWarsPlayer> players = new ConcurrentHashMap<>();
 
     {
         Players
@@ -54,43 +56,46 @@ public class PlayerManagerImpl implements PlayerManager {
     }
 
     public BedWarsPlayer getPlayerOrCreate(Player playerWrapper) {
-        return getPlayer(playerWrapper)
-                .orElseGet(() -> {
-                    var p = new BedWarsPlayer(playerWrapper);
-                    players.add(p);
-                    return p;
-                });
+        return players.computeIfAbsent(playerWrapper.getUuid(), uuid -> new BedWarsPlayer(playerWrapper));
     }
 
     public Optional<BedWarsPlayer> getPlayer(UUID uuid) {
-        return Optional.ofNullable(Players.getPlayer(uuid)).flatMap(this::getPlayer);
+        return Optional.ofNullable(getPlayerOrNull(uuid));
     }
 
     public Optional<BedWarsPlayer> getPlayer(Player playerWrapper) {
-        return players.stream()
-                .filter(bedWarsPlayer -> bedWarsPlayer.getUuid().equals(playerWrapper.getUuid()))
-                .findFirst();
+        return Optional.ofNullable(getPlayerOrNull(playerWrapper));
+    }
+
+    public @Nullable BedWarsPlayer getPlayerOrNull(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    public @Nullable BedWarsPlayer getPlayerOrNull(Player playerWrapper) {
+        return players.get(playerWrapper.getUuid());
     }
 
     public boolean isPlayerInGame(Player playerWrapper) {
-        return getPlayer(playerWrapper).map(p -> p.getGame() != null).orElse(false);
+        var player = getPlayerOrNull(playerWrapper);
+        return player != null && player.getGame() != null;
     }
 
     public boolean isPlayerInGame(UUID uuid) {
-        return getPlayer(uuid).map(p -> p.getGame() != null).orElse(false);
+        var player = getPlayerOrNull(uuid);
+        return player != null && player.getGame() != null;
     }
 
     public void dropPlayer(BedWarsPlayer player) {
         player.changeGame(null);
-        players.remove(player);
+        players.remove(player.getUuid(), player);
     }
 
     public boolean isPlayerRegistered(Player playerWrapper) {
-        return getPlayer(playerWrapper).isPresent();
+        return players.containsKey(playerWrapper.getUuid());
     }
 
     public boolean isPlayerRegistered(UUID uuid) {
-        return getPlayer(uuid).isPresent();
+        return players.containsKey(uuid);
     }
 
     @Override
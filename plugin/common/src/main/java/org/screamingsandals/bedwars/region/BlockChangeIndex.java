@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.region;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.utils.BlockPositions;
+import org.screamingsandals.bedwars.utils.LongObjectMap;
+import org.screamingsandals.lib.world.Location;
+import org.screamingsandals.lib.world.World;
+import org.screamingsandals.lib.world.chunk.Chunk;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Block positions grouped by world and chunk. Every block is stored as a packed long inside its chunk section,
+ * so lookups and removals are O(1) and whole chunks can be checked or drained at once.
+ *
+ * @param <V> value stored for each block
+ */
+class BlockChangeIndex<V> {
+    private final Map<World, LongObjectMap<LongObjectMap<V>>> worlds = new HashMap<>();
+    // arenas live in a single world, so the last used world is almost always the right one
+    private World lastWorld;
+    private LongObjectMap<LongObjectMap<V>> lastSections;
+    private int size;
+
+    public @Nullable V put(@NotNull Location location, @NotNull V value) {
+        var sections = sections(location.getWorld(), true);
+        var packed = BlockPositions.pack(location);
+        var chunkKey = BlockPositions.chunkKeyOf(packed);
+        var section = sections.get(chunkKey);
+        if (section == null) {
+            section = new LongObjectMap<>();
+            sections.put(chunkKey, section);
+        }
+        var previous = section.put(packed, value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    public @Nullable V get(@NotNull Location location) {
+        var section = section(location);
+        return section != null ? section.get(BlockPositions.pack(location)) : null;
+    }
+
+    public boolean contains(@NotNull Location location) {
+        var section = section(location);
+        return section != null && section.containsKey(BlockPositions.pack(location));
+    }
+
+    public @Nullable V remove(@NotNull Location location) {
+        var sections = sections(location.getWorld(), false);
+        if (sections == null) {
+            return null;
+        }
+        var packed = BlockPositions.pack(location);
+        var chunkKey = BlockPositions.chunkKeyOf(packed);
+        var section = sections.get(chunkKey);
+        if (section == null) {
+            return null;
+        }
+        var previous = section.remove(packed);
+        if (previous != null) {
+            size--;
+            if (section.isEmpty()) {
+                sections.remove(chunkKey);
+            }
+        }
+        return previous;
+    }
+
+    public boolean isChunkUsed(@NotNull Chunk chunk) {
+        var sections = sections(chunk.getWorld(), false);
+        return sections != null && sections.containsKey(BlockPositions.chunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        worlds.clear();
+        lastWorld = null;
+        lastSections = null;
+        size = 0;
+    }
+
+    /**
+     * Iterates over every indexed chunk together with the blocks changed in it.
+     * The index must not be modified while iterating.
+     *
+     * @param consumer chunk consumer
+     */
+    public void forEachChunk(@NotNull ChunkConsumer<V> consumer) {
+        for (var entry : worlds.entrySet()) {
+            var world = entry.getKey();
+            entry.getValue().forEach((chunkKey, section) ->
+                    consumer.accept(world, BlockPositions.chunkX(chunkKey), BlockPositions.chunkZ(chunkKey), section)
+            );
+        }
+    }
+
+    private @Nullable LongObjectMap<V> section(@NotNull Location location) {
+        var sections = sections(location.getWorld(), false);
+        if (sections == null) {
+            return null;
+        }
+        return sections.get(BlockPositions.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+    }
+
+    private LongObjectMap<LongObjectMap<V>> sections(World world, boolean create) {
+        if (world == lastWorld && lastSections != null) {
+            return lastSections;
+        }
+        var sections = worlds.get(world);
+        if (sections == null) {
+            if (!create) {
+                return null;
+            }
+            sections = new LongObjectMap<>();
+            worlds.put(world, sections);
+        }
+        lastWorld = world;
+        lastSections = sections;
+        return sections;
+    }
+
+    @FunctionalInterface
+    public interface ChunkConsumer<V> {
+        void accept(@NotNull World world, int chunkX, int chunkZ, @NotNull LongObjectMap<V> blocks);
+    }
+}
@@ -21,6 +21,8 @@ package org.screamingsandals.bedwars.region;
 
 import org.screamingsandals.bedwars.api.Region;
 import org.screamingsandals.bedwars.utils.BedUtils;
+import org.screamingsandals.bedwars.utils.BlockPositions;
+import org.screamingsandals.bedwars.utils.LongObjectMap;
 import org.screamingsandals.lib.api.types.server.BlockHolder;
 import org.screamingsandals.lib.api.types.server.BlockPlacementHolder;
 import org.screamingsandals.lib.api.types.server.BlockSnapshotHolder;
@@ -29,17 +31,16 @@ import org.screamingsandals.lib.api.types.server.LocationHolder;
 import org.screamingsandals.lib.block.BlockPlacement;
 import org.screamingsandals.lib.block.Block;
 import org.screamingsandals.lib.world.Location;
+import org.screamingsandals.lib.world.World;
 import org.screamingsandals.lib.world.chunk.Chunk;
 import org.screamingsandals.lib.block.snapshot.BlockSnapshot;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 public class RegionImpl implements Region {
-    private final List<Location> builtBlocks = new ArrayList<>();
-    private final Map<Location, BlockSnapshot> brokenOriginalBlocks = new HashMap<>();
+    private final BlockChangeIndex<Boolean> builtBlocks = new BlockChangeIndex<>();
+    private final BlockChangeIndex<BlockSnapshot> brokenOriginalBlocks = new BlockChangeIndex<>();
 
     public boolean isLocationModifiedDuringGame(Location loc) {
         return builtBlocks.contains(loc);
@@ -50,7 +51,7 @@ public class RegionImpl implements Region {
     }
 
     public void addBuiltDuringGame(Location loc) {
-        builtBlocks.add(loc);
+        builtBlocks.put(loc, Boolean.TRUE);
     }
 
     public void removeBlockBuiltDuringGame(Location loc) {
@@ -66,22 +67,40 @@ public class RegionImpl implements Region {
     }
 
     public void regen() {
-        for (var block : builtBlocks) {
-            var chunk = block.getChunk();
-            if (!chunk.isLoaded()) {
-                chunk.load();
+        prepareRegeneration(0).start();
+    }
+
+    /**
+     * Moves all recorded changes into a new {@link RegionRegeneration}. The region is empty afterwards,
+     * so it can immediately start recording the next game while the returned regeneration runs.
+     *
+     * @param tickBudgetNanos maximum time spent restoring blocks per tick, or 0 to restore everything at once
+     * @return not yet started regeneration
+     */
+    public RegionRegeneration prepareRegeneration(long tickBudgetNanos) {
+        var jobs = new ArrayDeque<RegionRegeneration.ChunkJob>();
+        var jobsByWorld = new HashMap<World, LongObjectMap<RegionRegeneration.ChunkJob>>();
+        builtBlocks.forEachChunk((world, chunkX, chunkZ, blocks) -> {
+            var job = new RegionRegeneration.ChunkJob(world, chunkX, chunkZ);
+            job.setBuiltBlocks(blocks.keys());
+            jobsByWorld.computeIfAbsent(world, w -> new LongObjectMap<>()).put(BlockPositions.chunkKey(chunkX, chunkZ), job);
+            jobs.add(job);
+        });
+        brokenOriginalBlocks.forEachChunk((world, chunkX, chunkZ, blocks) -> {
+            var chunkJobs = jobsByWorld.computeIfAbsent(world, w -> new LongObjectMap<>());
+            var chunkKey = BlockPositions.chunkKey(chunkX, chunkZ);
+            var existingJob = chunkJobs.get(chunkKey);
+            if (existingJob == null) {
+                existingJob = new RegionRegeneration.ChunkJob(world, chunkX, chunkZ);
+                chunkJobs.put(chunkKey, existingJob);
+                jobs.add(existingJob);
             }
-            block.getBlock().block(Block.air());
-        }
+            final var job = existingJob;
+            blocks.forEach((packed, snapshot) -> job.addOriginalBlock(snapshot));
+        });
         builtBlocks.clear();
-        for (var block : brokenOriginalBlocks.entrySet()) {
-            var chunk = block.getKey().getChunk();
-            if (!chunk.isLoaded()) {
-                chunk.load();
-            }
-            block.getValue().updateBlock(true, false);
-        }
         brokenOriginalBlocks.clear();
+        return new RegionRegeneration(jobs, tickBudgetNanos);
     }
 
     public boolean isBedHead(BlockSnapshot block) {
@@ -105,17 +124,7 @@ public class RegionImpl implements Region {
         if (chunk == null) {
             return false;
         }
-        for (var loc : builtBlocks) {
-            if (chunk.equals(loc.getChunk())) {
-                return true;
-            }
-        }
-        for (var loc : brokenOriginalBlocks.keySet()) {
-            if (chunk.equals(loc.getChunk())) {
-                return true;
-            }
-        }
-        return false;
+        return builtBlocks.isChunkUsed(chunk) || brokenOriginalBlocks.isChunkUsed(chunk);
     }
 
     @Override
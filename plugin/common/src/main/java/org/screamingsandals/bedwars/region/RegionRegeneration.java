@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.region;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.utils.BlockPositions;
+import org.screamingsandals.lib.block.Block;
+import org.screamingsandals.lib.block.snapshot.BlockSnapshot;
+import org.screamingsandals.lib.tasker.DefaultThreads;
+import org.screamingsandals.lib.tasker.Tasker;
+import org.screamingsandals.lib.tasker.TaskerTime;
+import org.screamingsandals.lib.tasker.task.Task;
+import org.screamingsandals.lib.world.Location;
+import org.screamingsandals.lib.world.World;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Restores a region chunk by chunk, spending at most the configured amount of time per server tick.
+ * <p>
+ * Within each chunk the built blocks are removed first and the original blocks are restored afterwards,
+ * so a block that was broken and then built over again ends up in its original state.
+ */
+public class RegionRegeneration {
+    private final Deque<ChunkJob> jobs;
+    private final long tickBudgetNanos;
+    private final int totalBlocks;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private @Nullable Consumer<RegionRegeneration> progressListener;
+    private @Nullable Task task;
+    private int processedBlocks;
+
+    RegionRegeneration(@NotNull Deque<ChunkJob> jobs, long tickBudgetNanos) {
+        this.jobs = jobs;
+        this.tickBudgetNanos = tickBudgetNanos;
+        var total = 0;
+        for (var job : jobs) {
+            total += job.size();
+        }
+        this.totalBlocks = total;
+    }
+
+    /**
+     * Sets a listener which is called on the global thread after every tick in which some blocks were restored.
+     *
+     * @param progressListener the listener
+     * @return this regeneration
+     */
+    public @NotNull RegionRegeneration onProgress(@Nullable Consumer<RegionRegeneration> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Starts the regeneration. If the tick budget is not positive, the whole region is restored immediately.
+     *
+     * @return future completed once every block is restored
+     */
+    public @NotNull CompletableFuture<Void> start() {
+        if (tickBudgetNanos <= 0 || jobs.isEmpty()) {
+            finishNow();
+            return future;
+        }
+        task = Tasker.runRepeatedly(DefaultThreads.GLOBAL_THREAD, this::tick, 1, TaskerTime.TICKS);
+        return future;
+    }
+
+    /**
+     * Restores all remaining blocks on the current thread, e.g. when the plugin is being disabled.
+     */
+    public void finishNow() {
+        if (future.isDone()) {
+            return;
+        }
+        cancelTask();
+        while (!jobs.isEmpty()) {
+            process(Long.MAX_VALUE);
+        }
+        notifyProgress();
+        future.complete(null);
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public @NotNull CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    public int getProcessedBlocks() {
+        return processedBlocks;
+    }
+
+    public int getTotalBlocks() {
+        return totalBlocks;
+    }
+
+    public double getProgress() {
+        return totalBlocks == 0 ? 1 : (double) processedBlocks / totalBlocks;
+    }
+
+    private void tick() {
+        if (future.isDone()) {
+            cancelTask();
+            return;
+        }
+        process(System.nanoTime() + tickBudgetNanos);
+        notifyProgress();
+        if (jobs.isEmpty()) {
+            cancelTask();
+            future.complete(null);
+        }
+    }
+
+    private void process(long deadline) {
+        while (!jobs.isEmpty()) {
+            var job = jobs.peekFirst();
+            processedBlocks += job.process(deadline);
+            if (!job.isDone()) {
+                return;
+            }
+            jobs.pollFirst();
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+    }
+
+    private void notifyProgress() {
+        if (progressListener != null) {
+            progressListener.accept(this);
+        }
+    }
+
+    private void cancelTask() {
+        if (task != null) {
+            if (task.isScheduledOrRunning()) {
+                task.cancel();
+            }
+            task = null;
+        }
+    }
+
+    static class ChunkJob {
+        private final World world;
+        private final int chunkX;
+        private final int chunkZ;
+        private long[] builtBlocks = new long[0];
+        private final List<BlockSnapshot> originalBlocks = new ArrayList<>();
+        private boolean loaded;
+        private int builtIndex;
+        private int originalIndex;
+
+        ChunkJob(@NotNull World world, int chunkX, int chunkZ) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        void setBuiltBlocks(long @NotNull [] builtBlocks) {
+            this.builtBlocks = builtBlocks;
+        }
+
+        void addOriginalBlock(@NotNull BlockSnapshot snapshot) {
+            originalBlocks.add(snapshot);
+        }
+
+        int size() {
+            return builtBlocks.length + originalBlocks.size();
+        }
+
+        boolean isDone() {
+            return builtIndex >= builtBlocks.length && originalIndex >= originalBlocks.size();
+        }
+
+        int process(long deadline) {
+            if (!loaded) {
+                var chunk = world.getChunkAt(chunkX, chunkZ);
+                if (chunk != null && !chunk.isLoaded()) {
+                    chunk.load();
+                }
+                loaded = true;
+            }
+            var processed = 0;
+            while (builtIndex < builtBlocks.length) {
+                var packed = builtBlocks[builtIndex++];
+                new Location(BlockPositions.unpackX(packed), BlockPositions.unpackY(packed), BlockPositions.unpackZ(packed), 0, 0, world)
+                        .getBlock()
+                        .block(Block.air());
+                processed++;
+                if (System.nanoTime() >= deadline) {
+                    return processed;
+                }
+            }
+            while (originalIndex < originalBlocks.size()) {
+                originalBlocks.get(originalIndex++).updateBlock(true, false);
+                processed++;
+                if (System.nanoTime() >= deadline) {
+                    return processed;
+                }
+            }
+            return processed;
+        }
+    }
+}
@@ -26,7 +26,6 @@ import org.screamingsandals.bedwars.api.special.BridgeEgg;
 import org.screamingsandals.bedwars.game.GameImpl;
 import org.screamingsandals.bedwars.game.TeamImpl;
 import org.screamingsandals.bedwars.player.BedWarsPlayer;
-import org.screamingsandals.bedwars.utils.ArenaUtils;
 import org.screamingsandals.lib.block.BlockPlacement;
 import org.screamingsandals.lib.block.Block;
 import org.screamingsandals.lib.entity.Entity;
@@ -57,7 +56,7 @@ public class BridgeEggImpl extends SpecialItemImpl implements BridgeEgg {
     }
 
     private void setBlock(BlockPlacement block) {
-        if (block.block().isAir() && ArenaUtils.isInArea(block.location(), game.getPos1(), game.getPos2())) {
+        if (block.block().isAir() && game.isLocationInArena(block.location())) {
             block.block(material);
             game.getRegion().addBuiltDuringGame(block.location());
             player.playSound(
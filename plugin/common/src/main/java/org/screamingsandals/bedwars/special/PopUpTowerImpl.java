@@ -27,7 +27,6 @@ import org.screamingsandals.bedwars.game.GameImpl;
 import org.screamingsandals.bedwars.game.TeamImpl;
 import org.screamingsandals.bedwars.game.target.TargetBlockImpl;
 import org.screamingsandals.bedwars.player.BedWarsPlayer;
-import org.screamingsandals.bedwars.utils.ArenaUtils;
 import org.screamingsandals.lib.block.Block;
 import org.screamingsandals.lib.spectator.sound.SoundSource;
 import org.screamingsandals.lib.spectator.sound.SoundStart;
@@ -65,7 +64,7 @@ public class PopUpTowerImpl extends SpecialItemImpl implements PopUpTower {
 
     private void placeBlock(Location location, Block type) {
         var block = location.getBlock();
-        if (isLocationSafe(location) && ArenaUtils.isInArea(block.location(), game.getPos1(), game.getPos2())) {
+        if (isLocationSafe(location) && game.isLocationInArena(block.location())) {
             block.block(type);
             this.game.getRegion().addBuiltDuringGame(block.location());
             try {
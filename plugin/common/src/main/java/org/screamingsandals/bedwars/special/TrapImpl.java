@@ -57,7 +57,9 @@ public class TrapImpl extends SpecialItemImpl implements Trap {
     }
 
     public void place(Location loc) {
+        var previousLocation = this.location;
         this.location = loc;
+        game.placeTrap(this, previousLocation);
     }
 
     public void process(BedWarsPlayer player, TeamImpl runningTeam, boolean forceDestroy) {
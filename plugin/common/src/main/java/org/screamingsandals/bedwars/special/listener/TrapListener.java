@@ -74,13 +74,10 @@ public class TrapListener {
 
     @OnEvent
     public void onTrapBreak(PlayerBreakBlockEventImpl event) {
-        for (var special : event.getGame().getActiveSpecialItems(TrapImpl.class)) {
-            var runningTeam = event.getTeam();
-
-            if (special.isPlaced() && event.getBlock().location().equals(special.getLocation())) {
-                event.setDrops(false);
-                special.process(event.getPlayer(), runningTeam, true);
-            }
+        var trap = event.getGame().getTrapAt(event.getBlock().location());
+        if (trap != null) {
+            event.setDrops(false);
+            trap.process(event.getPlayer(), event.getTeam(), true);
         }
     }
 
@@ -101,14 +98,9 @@ public class TrapListener {
         var gPlayer = PlayerManagerImpl.getInstance().getPlayer(player).orElseThrow();
         var game = gPlayer.getGame();
         if (game != null && game.getStatus() == GameStatus.RUNNING && !gPlayer.isSpectator()) {
-            for (var special : game.getActiveSpecialItems(TrapImpl.class)) {
-                if (special.isPlaced()) {
-                    if (game.getPlayerTeam(gPlayer) != special.getTeam()) {
-                        if (event.newLocation().getBlock().equals(special.getLocation().getBlock())) {
-                            special.process(gPlayer, game.getPlayerTeam(gPlayer), false);
-                        }
-                    }
-                }
+            var trap = game.getTrapAt(event.newLocation());
+            if (trap != null && game.getPlayerTeam(gPlayer) != trap.getTeam()) {
+                trap.process(gPlayer, game.getPlayerTeam(gPlayer), false);
             }
         }
     }
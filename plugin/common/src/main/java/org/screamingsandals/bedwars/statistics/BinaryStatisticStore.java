@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.statistics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Append-only statistic store made of fixed-width records in a memory-mapped file.
+ * <p>
+ * Every write appends a new version of the record and moves the in-memory UUID index to it, so persisting a
+ * statistic costs the same regardless of how many players are stored. Old versions are dropped by compaction,
+ * which runs once they outnumber the live records.
+ */
+public class BinaryStatisticStore implements Closeable {
+    private static final int MAGIC = 0x42575354; // BWST
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private static final int RECORD_SIZE = 96;
+    private static final int OFFSET_MARKER = 0;
+    private static final int OFFSET_UUID = 4;
+    private static final int OFFSET_STATS = 20;
+    private static final int OFFSET_NAME_LENGTH = 44;
+    private static final int OFFSET_NAME = 45;
+    private static final int MAX_NAME_BYTES = RECORD_SIZE - OFFSET_NAME;
+    private static final byte MARKER_RECORD = 1;
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MIN_COMPACTION_RECORDS = 4096;
+
+    private final Path file;
+    private final Map<UUID, Integer> index = new HashMap<>();
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity; // in records
+    private int records; // appended records including stale versions
+
+    public BinaryStatisticStore(@NotNull Path file) throws IOException {
+        this.file = file;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+    }
+
+    public synchronized boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized @Nullable PlayerStatisticImpl read(@NotNull UUID uuid) {
+        var record = index.get(uuid);
+        return record != null ? readRecord(record) : null;
+    }
+
+    public synchronized void write(@NotNull PlayerStatisticImpl statistic) throws IOException {
+        if (records == capacity) {
+            if (shouldCompact()) {
+                compact();
+            }
+            if (records == capacity) {
+                remap(Math.max(MIN_CAPACITY, capacity * 2));
+            }
+        }
+        var record = records++;
+        writeRecord(buffer, record, statistic);
+        index.put(statistic.getUuid(), record);
+    }
+
+    public synchronized void forEach(@NotNull Consumer<PlayerStatisticImpl> consumer) {
+        index.values().forEach(record -> consumer.accept(readRecord(record)));
+    }
+
+    /**
+     * Moves the newest version of each record to the front of the file. Records keep their relative order,
+     * so an interrupted compaction still leaves the newest version of every record last in the file.
+     */
+    public synchronized void compact() {
+        var live = 0;
+        for (var record = 0; record < records; record++) {
+            var position = position(record);
+            var uuid = new UUID(buffer.getLong(position + OFFSET_UUID), buffer.getLong(position + OFFSET_UUID + 8));
+            var latest = index.get(uuid);
+            if (latest == null || latest != record) {
+                continue;
+            }
+            if (live != record) {
+                var target = position(live);
+                for (var i = 0; i < RECORD_SIZE; i += Long.BYTES) {
+                    buffer.putLong(target + i, buffer.getLong(position + i));
+                }
+                index.put(uuid, live);
+            }
+            live++;
+        }
+        for (var record = live; record < records; record++) {
+            buffer.put(position(record) + OFFSET_MARKER, (byte) 0);
+        }
+        records = live;
+        buffer.force();
+    }
+
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (shouldCompact()) {
+            compact();
+        }
+        buffer.force();
+        channel.close();
+    }
+
+    private void load() throws IOException {
+        var size = channel.size();
+        capacity = Math.max(MIN_CAPACITY, (int) Math.max(0, (size - HEADER_SIZE) / RECORD_SIZE));
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+
+        if (size < HEADER_SIZE) {
+            writeHeader(buffer);
+            return;
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a BedWars statistics file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported format version " + buffer.getInt(4));
+        }
+
+        // the marker is written last, so the first record without it is where the previous run stopped
+        while (records < capacity && buffer.get(position(records) + OFFSET_MARKER) == MARKER_RECORD) {
+            var position = position(records);
+            index.put(new UUID(buffer.getLong(position + OFFSET_UUID), buffer.getLong(position + OFFSET_UUID + 8)), records);
+            records++;
+        }
+    }
+
+    private void remap(int newCapacity) throws IOException {
+        buffer.force();
+        capacity = newCapacity;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    private boolean shouldCompact() {
+        return records >= MIN_COMPACTION_RECORDS && records - index.size() > index.size();
+    }
+
+    private PlayerStatisticImpl readRecord(int record) {
+        var position = position(record);
+        var stats = position + OFFSET_STATS;
+        var nameBytes = new byte[Byte.toUnsignedInt(buffer.get(position + OFFSET_NAME_LENGTH))];
+        for (var i = 0; i < nameBytes.length; i++) {
+            nameBytes[i] = buffer.get(position + OFFSET_NAME + i);
+        }
+        return new PlayerStatisticImpl(
+                new UUID(buffer.getLong(position + OFFSET_UUID), buffer.getLong(position + OFFSET_UUID + 8)),
+                new String(nameBytes, StandardCharsets.UTF_8),
+                buffer.getInt(stats),
+                buffer.getInt(stats + 4),
+                buffer.getInt(stats + 8),
+                buffer.getInt(stats + 12),
+                buffer.getInt(stats + 16),
+                buffer.getInt(stats + 20)
+        );
+    }
+
+    private static void writeRecord(MappedByteBuffer buffer, int record, PlayerStatisticImpl statistic) {
+        var position = position(record);
+        var stats = position + OFFSET_STATS;
+        var uuid = statistic.getUuid();
+        buffer.putLong(position + OFFSET_UUID, uuid.getMostSignificantBits());
+        buffer.putLong(position + OFFSET_UUID + 8, uuid.getLeastSignificantBits());
+        buffer.putInt(stats, statistic.getDeaths());
+        buffer.putInt(stats + 4, statistic.getDestroyedBeds());
+        buffer.putInt(stats + 8, statistic.getKills());
+        buffer.putInt(stats + 12, statistic.getLoses());
+        buffer.putInt(stats + 16, statistic.getScore());
+        buffer.putInt(stats + 20, statistic.getWins());
+
+        var name = statistic.getName() != null ? statistic.getName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        var nameLength = Math.min(name.length, MAX_NAME_BYTES);
+        buffer.put(position + OFFSET_NAME_LENGTH, (byte) nameLength);
+        for (var i = 0; i < MAX_NAME_BYTES; i++) {
+            buffer.put(position + OFFSET_NAME + i, i < nameLength ? name[i] : 0);
+        }
+
+        buffer.put(position + OFFSET_MARKER, MARKER_RECORD);
+    }
+
+    private static void writeHeader(MappedByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+    }
+
+    private static int position(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.statistics;
+
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.database.DatabaseManager;
+import org.screamingsandals.lib.player.Players;
+import org.screamingsandals.lib.tasker.Tasker;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Leaderboard which leaves the ordering to the database instead of loading every score on startup.
+ * <p>
+ * Only the best {@code topCacheSize} rows and a bounded number of recently requested ranks are kept in memory. Both
+ * are loaded asynchronously, as they are requested by placeholders and commands on the server thread.
+ * Statistics of loaded players are laid over the cached rows, so their changes are visible before they are written.
+ */
+public class DatabaseLeaderboard {
+    private final DatabaseManager databaseManager;
+    private final int topCacheSize;
+    private final long refreshIntervalMillis;
+    private final Runnable topRowsListener;
+    private final Map<UUID, CachedRank> ranks;
+    private final Set<UUID> refreshingRanks = new HashSet<>();
+
+    private List<LeaderboardEntryImpl> topRows = List.of();
+    private long topRowsLoadedAt = -1;
+    private boolean refreshingTopRows;
+
+    /**
+     * @param topRowsListener called from the loading thread whenever the top rows have been reloaded
+     */
+    public DatabaseLeaderboard(@NotNull DatabaseManager databaseManager, int topCacheSize, int rankCacheSize, long refreshIntervalMillis, @NotNull Runnable topRowsListener) {
+        this.databaseManager = databaseManager;
+        this.topCacheSize = Math.max(1, topCacheSize);
+        this.refreshIntervalMillis = Math.max(0, refreshIntervalMillis);
+        this.topRowsListener = topRowsListener;
+        var maxRanks = Math.max(0, rankCacheSize);
+        this.ranks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedRank> eldest) {
+                return size() > maxRanks;
+            }
+        };
+    }
+
+    /**
+     * Never queries the database on the calling thread, outdated rows are refreshed in the background. Until the first
+     * load finishes, only the loaded statistics are ranked.
+     */
+    public List<LeaderboardEntryImpl> getTop(int count, @NotNull Collection<PlayerStatisticImpl> loadedStatistics) {
+        if (count <= 0) {
+            return List.of();
+        }
+
+        List<LeaderboardEntryImpl> rows;
+        synchronized (this) {
+            rows = topRows;
+            var now = System.currentTimeMillis();
+            if (!refreshingTopRows && (topRowsLoadedAt < 0 || now - topRowsLoadedAt >= refreshIntervalMillis || count > rows.size() && rows.size() >= topCacheSize)) {
+                refreshingTopRows = true;
+                var limit = Math.max(count, topCacheSize);
+                Tasker.runAsync(() -> refreshTopRows(limit));
+            }
+        }
+
+        var index = new LeaderboardIndex();
+        for (var row : rows) {
+            index.put(row.getPlayer().getUuid(), row.getLastKnownName(), row.getTotalScore());
+        }
+        for (var statistic : loadedStatistics) {
+            index.put(statistic.getUuid(), statistic.getName(), statistic.getScore());
+        }
+        return index.top(count);
+    }
+
+    /**
+     * Never queries the database on the calling thread, an outdated rank is refreshed in the background.
+     *
+     * @return last known 1-based position of the player, or -1 if it has not been loaded yet
+     */
+    public int getRank(@NotNull UUID uuid, int score) {
+        CachedRank cached;
+        synchronized (this) {
+            cached = ranks.get(uuid);
+            if (cached != null && cached.score == score && System.currentTimeMillis() - cached.loadedAt < refreshIntervalMillis) {
+                return cached.rank;
+            }
+            if (!refreshingRanks.add(uuid)) {
+                return cached != null ? cached.rank : -1;
+            }
+        }
+
+        Tasker.runAsync(() -> loadRank(uuid, score));
+        return cached != null ? cached.rank : -1;
+    }
+
+    public synchronized void invalidate(@NotNull UUID uuid) {
+        var cached = ranks.get(uuid);
+        if (cached != null) {
+            // keep showing the old rank until the new one is loaded
+            ranks.put(uuid, new CachedRank(cached.rank, cached.score, 0));
+        }
+    }
+
+    private void loadRank(@NotNull UUID uuid, int score) {
+        try (var connection = databaseManager.getConnection();
+             var preparedStatement = connection.prepareStatement(databaseManager.getRankSql())) {
+            preparedStatement.setInt(1, score);
+            preparedStatement.setInt(2, score);
+            preparedStatement.setString(3, uuid.toString());
+            try (var resultSet = preparedStatement.executeQuery()) {
+                var rank = resultSet.next() ? resultSet.getInt(1) + 1 : 1;
+                synchronized (this) {
+                    ranks.put(uuid, new CachedRank(rank, score, System.currentTimeMillis()));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            synchronized (this) {
+                refreshingRanks.remove(uuid);
+            }
+        }
+    }
+
+    private void refreshTopRows(int limit) {
+        try {
+            var rows = loadTopRows(limit);
+            synchronized (this) {
+                if (rows != null) {
+                    topRows = rows;
+                }
+                // a failed load is not retried before the next interval either
+                topRowsLoadedAt = System.currentTimeMillis();
+            }
+        } finally {
+            synchronized (this) {
+                refreshingTopRows = false;
+            }
+        }
+        topRowsListener.run();
+    }
+
+    private @Nullable List<LeaderboardEntryImpl> loadTopRows(int limit) {
+        var rows = new ArrayList<LeaderboardEntryImpl>(limit);
+        try (var connection = databaseManager.getConnection();
+             var preparedStatement = connection.prepareStatement(databaseManager.getTopScoresSql())) {
+            preparedStatement.setInt(1, limit);
+            try (var resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new LeaderboardEntryImpl(
+                            Players.getOfflinePlayer(UUID.fromString(resultSet.getString("uuid"))),
+                            resultSet.getInt("score"),
+                            resultSet.getString("name")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return rows;
+    }
+
+    @RequiredArgsConstructor
+    private static final class CachedRank {
+        private final int rank;
+        private final int score;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.statistics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.database.DatabaseManager;
+import org.screamingsandals.bedwars.lib.debug.Debug;
+import org.screamingsandals.lib.utils.logger.LoggerWrapper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for database statistics.
+ * <p>
+ * Stored statistics are copied and coalesced per player, then written from a dedicated thread in JDBC batches,
+ * either periodically or as soon as enough records are dirty. The main thread never touches the database.
+ */
+public class DatabaseStatisticWriter {
+    private final DatabaseManager databaseManager;
+    private final LoggerWrapper logger;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+    // the newest not yet written copy of each statistic
+    private final Map<UUID, PlayerStatisticImpl> dirty = new ConcurrentHashMap<>();
+    // copies which are being written right now
+    private final Map<UUID, PlayerStatisticImpl> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean shutdown;
+
+    // metrics
+    private final AtomicLong flushedRecords = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    public DatabaseStatisticWriter(@NotNull DatabaseManager databaseManager, @NotNull LoggerWrapper logger, long flushIntervalMillis, int batchSize) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "BedWars statistics writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = Math.max(50, flushIntervalMillis);
+        this.executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a copy of the statistic for writing. Safe to call from any thread.
+     *
+     * @param statistic the statistic
+     */
+    public void enqueue(@NotNull PlayerStatisticImpl statistic) {
+        if (shutdown) {
+            // the writer thread is gone, nothing else will write this record
+            writeBatch(List.of(statistic.copy()));
+            return;
+        }
+        dirty.put(statistic.getUuid(), statistic.copy());
+        if (dirty.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (Exception ex) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the newest statistic which was queued but is not yet in the database.
+     *
+     * @param uuid uuid of the player
+     * @return copy of the pending statistic or null if nothing is pending
+     */
+    public @Nullable PlayerStatisticImpl getPending(@NotNull UUID uuid) {
+        var pending = dirty.get(uuid);
+        if (pending == null) {
+            pending = inFlight.get(uuid);
+        }
+        return pending != null ? pending.copy() : null;
+    }
+
+    /**
+     * Stops the writer thread and synchronously writes everything which is still queued.
+     * <p>
+     * Gives up after a few seconds if a hung flush is still holding the writer.
+     */
+    public void shutdown() {
+        shutdown = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Statistics writer did not finish in time, writing the rest on the current thread");
+                executor.shutdownNow();
+            }
+            if (!flushLock.tryLock(5, TimeUnit.SECONDS)) {
+                logger.warn("Statistics writer is stuck, {} queued statistics were not stored", dirty.size());
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while stopping the statistics writer, {} queued statistics were not stored", dirty.size());
+            return;
+        }
+        try {
+            flushBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return dirty.size();
+    }
+
+    public long getFlushedRecords() {
+        return flushedRecords.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getLastFlushMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastFlushNanos);
+    }
+
+    public long getMaxFlushMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxFlushNanos);
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            flushBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatch() {
+        flushScheduled.set(false);
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        var batch = new ArrayList<PlayerStatisticImpl>();
+        for (var uuid : List.copyOf(dirty.keySet())) {
+            var statistic = dirty.get(uuid);
+            if (statistic != null) {
+                // published as in flight first, getPending must always find the record in one of the maps
+                inFlight.put(uuid, statistic);
+                dirty.remove(uuid, statistic);
+                batch.add(statistic);
+            }
+        }
+
+        var start = System.nanoTime();
+        var written = true;
+        for (var from = 0; from < batch.size(); from += batchSize) {
+            var chunk = batch.subList(from, Math.min(batch.size(), from + batchSize));
+            if (!writeBatch(chunk)) {
+                written = false;
+                // keep the records for the next attempt, unless something newer has been queued meanwhile
+                for (var statistic : chunk) {
+                    dirty.putIfAbsent(statistic.getUuid(), statistic);
+                }
+            }
+        }
+        var duration = System.nanoTime() - start;
+
+        for (var statistic : batch) {
+            inFlight.remove(statistic.getUuid(), statistic);
+        }
+
+        lastFlushNanos = duration;
+        if (duration > maxFlushNanos) {
+            maxFlushNanos = duration;
+        }
+        if (!written) {
+            failedFlushes.incrementAndGet();
+        }
+        Debug.info("Statistics writer: flushed " + batch.size() + " records in " + TimeUnit.NANOSECONDS.toMillis(duration) + " ms, " + dirty.size() + " queued");
+    }
+
+    private boolean writeBatch(List<PlayerStatisticImpl> statistics) {
+        try (var connection = databaseManager.getConnection()) {
+            if (connection == null) {
+                return false;
+            }
+            connection.setAutoCommit(false);
+
+            try (var preparedStatement = connection.prepareStatement(databaseManager.getWriteObjectSql())) {
+                for (var playerStatistic : statistics) {
+                    preparedStatement.setString(1, playerStatistic.getUuid().toString());
+                    preparedStatement.setString(2, playerStatistic.getName());
+                    preparedStatement.setInt(3, playerStatistic.getDeaths());
+                    preparedStatement.setInt(4, playerStatistic.getDestroyedBeds());
+                    preparedStatement.setInt(5, playerStatistic.getKills());
+                    preparedStatement.setInt(6, playerStatistic.getLoses());
+                    preparedStatement.setInt(7, playerStatistic.getScore());
+                    preparedStatement.setInt(8, playerStatistic.getWins());
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            flushedRecords.addAndGet(statistics.size());
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Couldn't store statistics of {} players", statistics.size(), e);
+            return false;
+        }
+    }
+}
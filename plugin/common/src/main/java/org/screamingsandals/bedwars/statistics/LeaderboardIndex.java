@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.statistics;
+
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.lib.player.Players;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Scores ordered by score descending, ties broken by UUID string descending like in the database. Backed by a treap
+ * with subtree sizes, so updates and rank lookups are O(log n) and reading the top k entries is O(log n + k).
+ */
+final class LeaderboardIndex {
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private @Nullable Node root;
+
+    public synchronized void put(UUID uuid, @Nullable String name, int score) {
+        var node = nodes.get(uuid);
+        if (node != null) {
+            if (node.score == score) {
+                node.name = name;
+                return;
+            }
+            root = remove(root, node);
+        }
+        node = new Node(uuid, name, score);
+        nodes.put(uuid, node);
+        root = insert(root, node);
+    }
+
+    public synchronized boolean remove(UUID uuid) {
+        var node = nodes.remove(uuid);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node);
+        return true;
+    }
+
+    public synchronized void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return 1-based position of the player, or -1 if the player is not on the leaderboard
+     */
+    public synchronized int getRank(UUID uuid) {
+        var target = nodes.get(uuid);
+        if (target == null) {
+            return -1;
+        }
+        var rank = 0;
+        var current = root;
+        while (current != null) {
+            var cmp = compare(target, current);
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left) + 1;
+                if (cmp == 0) {
+                    return rank;
+                }
+                current = current.right;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized List<LeaderboardEntryImpl> top(int count) {
+        var list = new ArrayList<LeaderboardEntryImpl>(Math.max(0, Math.min(count, nodes.size())));
+        var stack = new ArrayDeque<Node>();
+        var current = root;
+        while (list.size() < count && (current != null || !stack.isEmpty())) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            list.add(new LeaderboardEntryImpl(Players.getOfflinePlayer(current.uuid), current.score, current.name));
+            current = current.right;
+        }
+        return list;
+    }
+
+    private static @Nullable Node insert(@Nullable Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (node.priority > root.priority) {
+            split(root, node);
+            node.update();
+            return node;
+        }
+        if (compare(node, root) < 0) {
+            root.left = insert(root.left, node);
+        } else {
+            root.right = insert(root.right, node);
+        }
+        root.update();
+        return root;
+    }
+
+    /**
+     * Splits the tree into the parts ordered before and after the pivot and hangs them under the pivot.
+     */
+    private static void split(@Nullable Node root, Node pivot) {
+        if (root == null) {
+            pivot.left = null;
+            pivot.right = null;
+            return;
+        }
+        if (compare(root, pivot) < 0) {
+            split(root.right, pivot);
+            root.right = pivot.left;
+            root.update();
+            pivot.left = root;
+        } else {
+            split(root.left, pivot);
+            root.left = pivot.right;
+            root.update();
+            pivot.right = root;
+        }
+    }
+
+    private static @Nullable Node remove(@Nullable Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        if (root == node) {
+            var merged = merge(root.left, root.right);
+            node.left = null;
+            node.right = null;
+            node.size = 1;
+            return merged;
+        }
+        if (compare(node, root) < 0) {
+            root.left = remove(root.left, node);
+        } else {
+            root.right = remove(root.right, node);
+        }
+        root.update();
+        return root;
+    }
+
+    private static @Nullable Node merge(@Nullable Node left, @Nullable Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int compare(Node a, Node b) {
+        var cmp = Integer.compare(b.score, a.score);
+        // UUID.compareTo compares signed halves, which differs from the string order used by the database
+        return cmp != 0 ? cmp : b.uuidString.compareTo(a.uuidString);
+    }
+
+    private static int size(@Nullable Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private final UUID uuid;
+        private final String uuidString;
+        private final int score;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private @Nullable String name;
+        private int size = 1;
+        private @Nullable Node left;
+        private @Nullable Node right;
+
+        private Node(UUID uuid, @Nullable String name, int score) {
+            this.uuid = uuid;
+            this.uuidString = uuid.toString();
+            this.name = name;
+            this.score = score;
+        }
+
+        private void update() {
+            size = 1 + LeaderboardIndex.size(left) + LeaderboardIndex.size(right);
+        }
+    }
+}
@@ -54,6 +54,9 @@ public class PlayerStatisticImpl implements PlayerStatistic {
     @Getter(AccessLevel.NONE)
     private int levelCacheScore = -1;
 
+    private PlayerStatisticImpl() {
+    }
+
     public PlayerStatisticImpl(UUID uuid) {
         this.uuid = uuid;
 
@@ -63,6 +66,17 @@ public class PlayerStatisticImpl implements PlayerStatistic {
         }
     }
 
+    PlayerStatisticImpl(UUID uuid, String name, int deaths, int destroyedBeds, int kills, int loses, int score, int wins) {
+        this.uuid = uuid;
+        this.name = name;
+        this.deaths = deaths;
+        this.destroyedBeds = destroyedBeds;
+        this.kills = kills;
+        this.loses = loses;
+        this.score = score;
+        this.wins = wins;
+    }
+
     public PlayerStatisticImpl(Map<String, Object> deserialize) {
         if (deserialize.containsKey("deaths")) {
             this.deaths = (int) deserialize.get("deaths");
@@ -101,6 +115,22 @@ public class PlayerStatisticImpl implements PlayerStatistic {
         this.uuid = UUID.fromString(Objects.requireNonNull(configurationNode.key()).toString());
     }
 
+    /**
+     * @return detached copy of this statistic, e.g. for writing it from another thread
+     */
+    public PlayerStatisticImpl copy() {
+        var copy = new PlayerStatisticImpl();
+        copy.uuid = this.uuid;
+        copy.name = this.name;
+        copy.deaths = this.deaths;
+        copy.destroyedBeds = this.destroyedBeds;
+        copy.kills = this.kills;
+        copy.loses = this.loses;
+        copy.score = this.score;
+        copy.wins = this.wins;
+        return copy;
+    }
+
     public int getGames() {
         return this.getWins() + this.getLoses();
     }
@@ -33,20 +33,29 @@ import org.screamingsandals.lib.event.OnEvent;
 import org.screamingsandals.lib.player.OfflinePlayer;
 import org.screamingsandals.lib.player.Players;
 import org.screamingsandals.lib.player.Player;
+import org.screamingsandals.lib.event.player.PlayerJoinEvent;
 import org.screamingsandals.lib.event.player.PlayerLeaveEvent;
 import org.screamingsandals.lib.plugin.ServiceManager;
+import org.screamingsandals.lib.tasker.Tasker;
+import org.screamingsandals.lib.tasker.TaskerTime;
 import org.screamingsandals.lib.utils.annotations.Service;
+import org.screamingsandals.lib.utils.annotations.methods.OnDisable;
 import org.screamingsandals.lib.utils.annotations.methods.OnEnable;
 import org.screamingsandals.lib.utils.annotations.methods.ShouldRunControllable;
 import org.screamingsandals.lib.utils.annotations.parameters.ConfigFile;
+import org.screamingsandals.lib.utils.annotations.parameters.DataFolder;
 import org.screamingsandals.lib.utils.logger.LoggerWrapper;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -57,10 +66,20 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
     private final DatabaseManager databaseManager;
     private final LoggerWrapper logger;
 
+    @DataFolder("database")
+    private final Path databaseFolder;
+
     private ConfigurationNode fileDatabase;
+    private @Nullable BinaryStatisticStore binaryStore;
     private StatisticType statisticType;
-    private final Map<UUID, PlayerStatisticImpl> playerStatistic = new HashMap<>();
-    private final Map<UUID, Map.Entry<@Nullable String, Integer>> allScores = new HashMap<>();
+    @Getter
+    private @Nullable DatabaseStatisticWriter databaseWriter;
+    private final Map<UUID, PlayerStatisticImpl> playerStatistic = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<PlayerStatisticImpl>> loadingStatistics = new ConcurrentHashMap<>();
+    // statistics of players who are not online anymore (or not yet), in order of their eviction deadline
+    private final LinkedHashMap<UUID, Long> pendingUnloads = new LinkedHashMap<>();
+    private final LeaderboardIndex leaderboard = new LeaderboardIndex();
+    private @Nullable DatabaseLeaderboard databaseLeaderboard;
 
     // level system
     @Getter
@@ -97,26 +116,102 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
             return null;
         }
 
-        if (!this.playerStatistic.containsKey(uuid)) {
-            return this.loadStatistic(uuid);
+        var statistic = this.playerStatistic.get(uuid);
+        if (statistic != null) {
+            return statistic;
+        }
+
+        var loading = this.loadingStatistics.get(uuid);
+        if (loading != null) {
+            return loading.join();
         }
 
+        return this.loadStatistic(uuid);
+    }
+
+    /**
+     * Returns the statistic only if it is already loaded, never touches the database.
+     *
+     * @param uuid uuid of the player
+     * @return the loaded statistic or null
+     */
+    public @Nullable PlayerStatisticImpl getLoadedStatistic(UUID uuid) {
         return this.playerStatistic.get(uuid);
     }
 
+    /**
+     * Returns the loaded statistic or loads it on an async thread. Concurrent requests share one load.
+     *
+     * @param uuid uuid of the player
+     * @return future completed with the statistic
+     */
+    public CompletableFuture<PlayerStatisticImpl> getStatisticAsync(UUID uuid) {
+        var statistic = this.playerStatistic.get(uuid);
+        if (statistic != null) {
+            return CompletableFuture.completedFuture(statistic);
+        }
+
+        return this.loadingStatistics.computeIfAbsent(uuid, u -> {
+            var future = new CompletableFuture<PlayerStatisticImpl>();
+            Tasker.runAsync(() -> completeLoading(u, future));
+            return future;
+        });
+    }
+
+    /**
+     * Loads the statistic on the current thread, meant to be called from async pre-login handlers.
+     * The statistic is unloaded again after the grace period unless the player joins.
+     *
+     * @param uuid uuid of the player
+     */
+    public void prefetchStatistic(UUID uuid) {
+        if (statisticType != StatisticType.DATABASE || this.playerStatistic.containsKey(uuid)) {
+            return;
+        }
+
+        var future = new CompletableFuture<PlayerStatisticImpl>();
+        var loading = this.loadingStatistics.putIfAbsent(uuid, future);
+        if (loading == null) {
+            // the player is not online yet, so the loaded statistic gets an unload deadline until the join
+            completeLoading(uuid, future);
+        } else {
+            loading.join();
+        }
+    }
+
+    private void completeLoading(UUID uuid, CompletableFuture<PlayerStatisticImpl> future) {
+        try {
+            var statistic = this.loadStatistic(uuid);
+            this.loadingStatistics.remove(uuid, future);
+            if (statisticType == StatisticType.DATABASE && Players.getPlayer(uuid) == null) {
+                // nobody is going to unload it on leave
+                scheduleUnload(uuid);
+            }
+            future.complete(statistic);
+        } catch (Throwable throwable) {
+            this.loadingStatistics.remove(uuid, future);
+            future.completeExceptionally(throwable);
+        }
+    }
+
     @OnEnable
     public void initialize() {
         if (!mainConfig.node("statistics", "enabled").getBoolean()) {
             return;
         }
 
+        var type = mainConfig.node("statistics", "type").getString("");
         statisticType = 
-                mainConfig.node("statistics", "type").getString("").equalsIgnoreCase("database") ? 
+                type.equalsIgnoreCase("database") ? 
                         StatisticType.DATABASE : 
-                        StatisticType.YAML;
+                        type.equalsIgnoreCase("binary") ?
+                                StatisticType.BINARY :
+                                StatisticType.YAML;
         
         if (statisticType == StatisticType.DATABASE) {
             this.initializeDatabase();
+        } else if (statisticType == StatisticType.BINARY) {
+            this.initializeBinary();
         } else {
             this.loadYml();
         }
@@ -150,11 +245,39 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
         }
     }
 
+    @OnDisable
+    public void disable() {
+        if (databaseWriter != null) {
+            // the reference is kept, statistics stored after this point are written synchronously
+            databaseWriter.shutdown();
+        }
+        if (binaryStore != null) {
+            try {
+                binaryStore.close();
+            } catch (IOException ex) {
+                logger.warn("Couldn't close binary statistics file", ex);
+            }
+            binaryStore = null;
+        }
+    }
+
     @OnEvent
     public void onLeave(PlayerLeaveEvent event) {
         unloadStatistic(event.player());
     }
 
+    @OnEvent
+    public void onJoin(PlayerJoinEvent event) {
+        var uuid = event.player().getUuid();
+        synchronized (pendingUnloads) {
+            pendingUnloads.remove(uuid);
+        }
+        if (statisticType == StatisticType.DATABASE) {
+            // platforms without a pre-login hook still get the statistic loaded off the main thread
+            getStatisticAsync(uuid);
+        }
+    }
+
     public void initializeDatabase() {
         logger.info("Loading statistics from database...");
 
@@ -167,52 +290,120 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
                 preparedStatement.executeUpdate();
                 connection.commit();
                 preparedStatement.close();
+
+                databaseManager.createScoreIndex(connection);
+                connection.commit();
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
+
+            databaseWriter = new DatabaseStatisticWriter(
+                    databaseManager,
+                    logger,
+                    mainConfig.node("statistics", "database-writer", "flush-interval-ms").getLong(1000),
+                    mainConfig.node("statistics", "database-writer", "batch-size").getInt(100)
+            );
         } catch (Exception e) {
             e.printStackTrace();
         }
 
     }
 
-    private void initializeLeaderboard() {
-        allScores.clear();
+    private void initializeBinary() {
+        logger.info("Loading statistics from binary file...");
 
-        if (statisticType == StatisticType.DATABASE) {
+        try {
+            binaryStore = new BinaryStatisticStore(databaseFolder.resolve("bw_stats_players.dat"));
+            if (binaryStore.isEmpty()) {
+                importYamlStatistics(binaryStore);
+            }
+        } catch (Exception ex) {
+            logger.warn("Couldn't open binary statistics file, falling back to YAML", ex);
+            binaryStore = null;
+            statisticType = StatisticType.YAML;
+            loadYml();
+        }
+    }
+
+    /**
+     * One-shot import of the YAML statistics into a new binary store. The YAML file is left untouched.
+     */
+    private void importYamlStatistics(BinaryStatisticStore store) throws IOException {
+        var data = loader.load().node("data").childrenMap();
+        if (data.isEmpty()) {
+            return;
+        }
+
+        for (var node : data.values()) {
+            store.write(new PlayerStatisticImpl(node));
+        }
+        store.flush();
+        logger.info("Imported {} statistics from YAML into the binary statistics file", data.size());
+    }
+
+    private void initializeLeaderboard() {
+        leaderboard.clear();
+        databaseLeaderboard = null;
+
+        if (statisticType == StatisticType.DATABASE && mainConfig.node("statistics", "database-leaderboard", "enabled").getBoolean(true)) {
+            databaseLeaderboard = new DatabaseLeaderboard(
+                    databaseManager,
+                    mainConfig.node("statistics", "database-leaderboard", "top-cache-size").getInt(100),
+                    mainConfig.node("statistics", "database-leaderboard", "rank-cache-size").getInt(1000),
+                    TimeUnit.SECONDS.toMillis(mainConfig.node("statistics", "database-leaderboard", "refresh-interval-seconds").getLong(30)),
+                    this::scheduleHologramUpdate
+            );
+        } else if (statisticType == StatisticType.DATABASE) {
             try (var connection = databaseManager.getConnection()) {
                 connection.setAutoCommit(false);
                 final var preparedStatement = connection
-                        .prepareStatement(databaseManager.getScoresSql(), ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+                        .prepareStatement(databaseManager.getScoresSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                preparedStatement.setFetchSize(1000);
                 ResultSet resultSet = preparedStatement.executeQuery();
-                if (resultSet.first()) {
-                    do {
-                        allScores.put(UUID.fromString(resultSet.getString("uuid")), new AbstractMap.SimpleEntry<>(resultSet.getString("name"), resultSet.getInt("score")));
-                    } while (resultSet.next());
+                while (resultSet.next()) {
+                    leaderboard.put(UUID.fromString(resultSet.getString("uuid")), resultSet.getString("name"), resultSet.getInt("score"));
                 }
                 connection.commit();
                 preparedStatement.close();
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
+        } else if (statisticType == StatisticType.BINARY) {
+            binaryStore.forEach(statistic -> leaderboard.put(statistic.getUuid(), statistic.getName(), statistic.getScore()));
         } else {
-            fileDatabase.node("data").childrenMap().forEach((key, node) -> allScores.put(UUID.fromString(key.toString()), new AbstractMap.SimpleEntry<>(node.node("name").getString(), node.node("score").getInt())));
+            fileDatabase.node("data").childrenMap().forEach((key, node) -> leaderboard.put(UUID.fromString(key.toString()), node.node("name").getString(), node.node("score").getInt()));
         }
     }
 
     public List<LeaderboardEntryImpl> getLeaderboard(int count) {
-        return allScores.entrySet()
-                .stream()
-                .sorted((c1, c2) -> Comparator.<Integer>reverseOrder().compare(c1.getValue().getValue(), c2.getValue().getValue()))
-                .limit(count)
-                .map(entry -> new LeaderboardEntryImpl(Players.getOfflinePlayer(entry.getKey()), entry.getValue().getValue(), entry.getValue().getKey()))
-                .collect(Collectors.toList());
+        if (databaseLeaderboard != null) {
+            return databaseLeaderboard.getTop(count, playerStatistic.values());
+        }
+        return leaderboard.top(count);
+    }
+
+    /**
+     * @return 1-based leaderboard position of the player, or -1 if the player has no score yet or the rank is still loading
+     */
+    public int getRank(UUID uuid) {
+        if (databaseLeaderboard != null) {
+            var statistic = getStatistic(uuid);
+            return statistic != null ? databaseLeaderboard.getRank(uuid, statistic.getScore()) : -1;
+        }
+        return leaderboard.getRank(uuid);
     }
 
     private PlayerStatisticImpl loadDatabaseStatistic(UUID uuid) {
         if (this.playerStatistic.containsKey(uuid)) {
             return this.playerStatistic.get(uuid);
         }
+        var pending = databaseWriter != null ? databaseWriter.getPending(uuid) : null;
+        if (pending != null) {
+            // not written yet, the database still has the old values
+            this.playerStatistic.put(uuid, pending);
+            return pending;
+        }
+
         var deserialize = new HashMap<String, Object>();
 
         try (var connection = databaseManager.getConnection()) {
@@ -255,9 +446,30 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
     }
 
     public PlayerStatisticImpl loadStatistic(UUID uuid) {
+        if (statisticType == StatisticType.BINARY) {
+            return loadBinaryStatistic(uuid);
+        }
         return (statisticType == StatisticType.DATABASE) ? loadDatabaseStatistic(uuid) : loadYamlStatistic(uuid);
     }
 
+    private PlayerStatisticImpl loadBinaryStatistic(UUID uuid) {
+        var playerStatistic = binaryStore != null ? binaryStore.read(uuid) : null;
+        if (playerStatistic == null) {
+            playerStatistic = new PlayerStatisticImpl(uuid);
+            this.playerStatistic.put(uuid, playerStatistic);
+            return playerStatistic;
+        }
+
+        var player = Players.getPlayer(uuid);
+        if (player != null) {
+            playerStatistic.setName(player.getName());
+        }
+
+        this.playerStatistic.put(uuid, playerStatistic);
+        updateScore(playerStatistic);
+        return playerStatistic;
+    }
+
     private PlayerStatisticImpl loadYamlStatistic(UUID uuid) {
         if (this.fileDatabase == null || this.fileDatabase.node("data", uuid.toString()).empty()) {
             var playerStatistic = new PlayerStatisticImpl(uuid);
@@ -291,27 +503,11 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
     }
 
     private void storeDatabaseStatistic(PlayerStatisticImpl playerStatistic) {
-        try (var connection = databaseManager.getConnection()) {
-            connection.setAutoCommit(false);
-
-            var preparedStatement = connection
-                    .prepareStatement(databaseManager.getWriteObjectSql());
-
-            preparedStatement.setString(1, playerStatistic.getUuid().toString());
-            preparedStatement.setString(2, playerStatistic.getName());
-            preparedStatement.setInt(3, playerStatistic.getDeaths());
-            preparedStatement.setInt(4, playerStatistic.getDestroyedBeds());
-            preparedStatement.setInt(5, playerStatistic.getKills());
-            preparedStatement.setInt(6, playerStatistic.getLoses());
-            preparedStatement.setInt(7, playerStatistic.getScore());
-            preparedStatement.setInt(8, playerStatistic.getWins());
-            preparedStatement.executeUpdate();
-            connection.commit();
-            preparedStatement.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (databaseWriter != null) {
+            databaseWriter.enqueue(playerStatistic);
+        } else {
+            logger.warn("Statistics writer is not initialized, statistic of player with uuid {} was not stored", playerStatistic.getUuid().toString());
         }
-
     }
 
     public void storeStatistic(PlayerStatisticImpl statistic) {
@@ -324,11 +520,24 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
 
         if (statisticType == StatisticType.DATABASE) {
             this.storeDatabaseStatistic(statistic);
+        } else if (statisticType == StatisticType.BINARY) {
+            this.storeBinaryStatistic(statistic);
         } else {
             this.storeYamlStatistic(statistic);
         }
     }
 
+    private void storeBinaryStatistic(PlayerStatisticImpl statistic) {
+        if (binaryStore == null) {
+            return;
+        }
+        try {
+            binaryStore.write(statistic);
+        } catch (IOException ex) {
+            logger.warn("Couldn't store statistic data for player with uuid: {}", statistic.getUuid().toString(), ex);
+        }
+    }
+
     private synchronized void storeYamlStatistic(PlayerStatisticImpl statistic) {
         var node = this.fileDatabase.node("data", statistic.getUuid().toString());
         statistic.serializeTo(node);
@@ -341,19 +550,73 @@ public class PlayerStatisticManager implements PlayerStatisticsManager {
 
     public void unloadStatistic(OfflinePlayer player) {
         if (statisticType == StatisticType.DATABASE) {
+            scheduleUnload(player.getUuid());
+        } else if (statisticType == StatisticType.BINARY) {
+            // reading it back is a lookup in the mapped file, no need to keep it around
             this.playerStatistic.remove(player.getUuid());
         }
     }
 
+    private void scheduleUnload(UUID uuid) {
+        var graceMillis = TimeUnit.SECONDS.toMillis(mainConfig.node("statistics", "cache", "unload-grace-seconds").getLong(60));
+        var maxSize = mainConfig.node("statistics", "cache", "max-offline-players").getInt(500);
+        var evicted = new ArrayList<UUID>();
+
+        synchronized (pendingUnloads) {
+            pendingUnloads.remove(uuid);
+            pendingUnloads.put(uuid, System.currentTimeMillis() + graceMillis);
+            var iterator = pendingUnloads.keySet().iterator();
+            while (pendingUnloads.size() > Math.max(0, maxSize) && iterator.hasNext()) {
+                evicted.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        evicted.forEach(this.playerStatistic::remove);
+
+        Tasker.runAsyncDelayed(this::evictExpiredStatistics, Math.max(1, graceMillis / 50 + 1), TaskerTime.TICKS);
+    }
+
+    private void evictExpiredStatistics() {
+        var now = System.currentTimeMillis();
+        var evicted = new ArrayList<UUID>();
+
+        synchronized (pendingUnloads) {
+            var iterator = pendingUnloads.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.getValue() > now) {
+                    break;
+                }
+                iterator.remove();
+                evicted.add(entry.getKey());
+            }
+        }
+
+        for (var uuid : evicted) {
+            if (Players.getPlayer(uuid) == null) {
+                this.playerStatistic.remove(uuid);
+            }
+        }
+    }
+
     public void updateScore(PlayerStatisticImpl playerStatistic) {
-        allScores.put(playerStatistic.getUuid(), new AbstractMap.SimpleEntry<>(playerStatistic.getName(), playerStatistic.getScore()));
+        if (databaseLeaderboard != null) {
+            databaseLeaderboard.invalidate(playerStatistic.getUuid());
+        } else {
+            leaderboard.put(playerStatistic.getUuid(), playerStatistic.getName(), playerStatistic.getScore());
+        }
+        scheduleHologramUpdate();
+    }
+
+    private void scheduleHologramUpdate() {
         if (LeaderboardHolograms.isEnabled()) {
-            LeaderboardHolograms.getInstance().updateEntries();
+            LeaderboardHolograms.getInstance().scheduleEntriesUpdate();
         }
     }
     
     public enum StatisticType {
         DATABASE,
-        YAML
+        YAML,
+        BINARY
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.utils;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.lib.world.Location;
+import org.screamingsandals.lib.world.World;
+
+import java.util.UUID;
+
+/**
+ * Immutable axis-aligned bounds of an arena, with the covered chunk range precomputed.
+ */
+@Getter
+public final class ArenaBounds {
+    private final @NotNull World world;
+    private final @NotNull UUID worldUuid;
+    private final double minX;
+    private final double minY;
+    private final double minZ;
+    private final double maxX;
+    private final double maxY;
+    private final double maxZ;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int maxChunkX;
+    private final int maxChunkZ;
+
+    private ArenaBounds(@NotNull Location pos1, @NotNull Location pos2) {
+        this.world = pos1.getWorld();
+        this.worldUuid = world.getUuid();
+        this.minX = Math.min(pos1.getX(), pos2.getX());
+        this.minY = Math.min(pos1.getY(), pos2.getY());
+        this.minZ = Math.min(pos1.getZ(), pos2.getZ());
+        this.maxX = Math.max(pos1.getX(), pos2.getX());
+        this.maxY = Math.max(pos1.getY(), pos2.getY());
+        this.maxZ = Math.max(pos1.getZ(), pos2.getZ());
+        this.minChunkX = Math.min(pos1.getBlockX(), pos2.getBlockX()) >> 4;
+        this.minChunkZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+        this.maxChunkX = Math.max(pos1.getBlockX(), pos2.getBlockX()) >> 4;
+        this.maxChunkZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+    }
+
+    /**
+     * @return bounds of the area between the two corners, or null if any of them is not set
+     */
+    public static @Nullable ArenaBounds of(@Nullable Location pos1, @Nullable Location pos2) {
+        if (pos1 == null || pos2 == null) {
+            return null;
+        }
+        return new ArenaBounds(pos1, pos2);
+    }
+
+    public boolean contains(@NotNull Location location) {
+        return world.equals(location.getWorld()) && contains(location.getX(), location.getY(), location.getZ());
+    }
+
+    public boolean contains(double x, double y, double z) {
+        return minX <= x && minY <= y && minZ <= z && maxX >= x && maxY >= y && maxZ >= z;
+    }
+
+    public boolean containsChunk(int chunkX, int chunkZ) {
+        return minChunkX <= chunkX && minChunkZ <= chunkZ && maxChunkX >= chunkX && maxChunkZ >= chunkZ;
+    }
+}
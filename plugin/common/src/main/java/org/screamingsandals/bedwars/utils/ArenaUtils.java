@@ -31,12 +31,11 @@ public class ArenaUtils {
             return false;
         }
 
-        var min = new Location(Math.min(p1.getX(), p2.getX()), Math.min(p1.getY(), p2.getY()),
-                Math.min(p1.getZ(), p2.getZ()), 0, 0, p1.getWorld());
-        var max = new Location(Math.max(p1.getX(), p2.getX()), Math.max(p1.getY(), p2.getY()),
-                Math.max(p1.getZ(), p2.getZ()), 0, 0, p1.getWorld());
-        return (min.getX() <= l.getX() && min.getY() <= l.getY() && min.getZ() <= l.getZ() && max.getX() >= l.getX()
-                && max.getY() >= l.getY() && max.getZ() >= l.getZ());
+        var x = l.getX();
+        var y = l.getY();
+        var z = l.getZ();
+        return Math.min(p1.getX(), p2.getX()) <= x && Math.min(p1.getY(), p2.getY()) <= y && Math.min(p1.getZ(), p2.getZ()) <= z
+                && Math.max(p1.getX(), p2.getX()) >= x && Math.max(p1.getY(), p2.getY()) >= y && Math.max(p1.getZ(), p2.getZ()) >= z;
     }
 
     public boolean isChunkInArea(Chunk l, Location p1, Location p2) {
@@ -44,11 +43,10 @@ public class ArenaUtils {
             return false;
         }
 
-        var min = new Location(Math.min(p1.getX(), p2.getX()), Math.min(p1.getY(), p2.getY()),
-                Math.min(p1.getZ(), p2.getZ()), 0, 0, p1.getWorld()).getChunk();
-        var max = new Location(Math.max(p1.getX(), p2.getX()), Math.max(p1.getY(), p2.getY()),
-                Math.max(p1.getZ(), p2.getZ()), 0, 0, p1.getWorld()).getChunk();
-        return (min.getX() <= l.getX() && min.getZ() <= l.getZ() && max.getX() >= l.getX() && max.getZ() >= l.getZ());
+        var x = l.getX();
+        var z = l.getZ();
+        return (Math.min(p1.getBlockX(), p2.getBlockX()) >> 4) <= x && (Math.min(p1.getBlockZ(), p2.getBlockZ()) >> 4) <= z
+                && (Math.max(p1.getBlockX(), p2.getBlockX()) >> 4) >= x && (Math.max(p1.getBlockZ(), p2.getBlockZ()) >> 4) >= z;
     }
 
     public static boolean arenaOverlaps(Location l1, Location l2, Location p1, Location p2) {
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.utils;
+
+import lombok.experimental.UtilityClass;
+import org.screamingsandals.lib.world.Location;
+
+/**
+ * Packs block coordinates into a single {@code long} (26 bits X, 26 bits Z, 12 bits Y, same layout as vanilla).
+ */
+@UtilityClass
+public class BlockPositions {
+    private final int XZ_BITS = 26;
+    private final int Y_BITS = 12;
+    private final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private final long Y_MASK = (1L << Y_BITS) - 1;
+
+    public long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << (XZ_BITS + Y_BITS)) | ((z & XZ_MASK) << Y_BITS) | (y & Y_MASK);
+    }
+
+    public long pack(Location location) {
+        return pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public int unpackX(long packed) {
+        return (int) (packed >> (XZ_BITS + Y_BITS));
+    }
+
+    public int unpackY(long packed) {
+        return (int) (packed << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public int unpackZ(long packed) {
+        return (int) (packed << (64 - XZ_BITS - Y_BITS) >> (64 - XZ_BITS));
+    }
+
+    public long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public long chunkKeyOf(long packed) {
+        return chunkKey(unpackX(packed) >> 4, unpackZ(packed) >> 4);
+    }
+
+    public int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    public int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map with primitive {@code long} keys.
+ * <p>
+ * Lookups, insertions and removals do not box the key. Not thread-safe.
+ *
+ * @param <V> value type, null values are not permitted
+ */
+public final class LongObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6F;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long key) {
+        var index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(long key, @NotNull V value) {
+        var index = mix(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                var previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(long key) {
+        var index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        var previous = (V) values[index];
+        shiftKeys(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Iterates over all entries. The map must not be modified while iterating.
+     *
+     * @param consumer entry consumer
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull EntryConsumer<? super V> consumer) {
+        for (var i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Copies all keys into a new array.
+     *
+     * @return array of keys in no particular order
+     */
+    public long @NotNull [] keys() {
+        var result = new long[size];
+        var j = 0;
+        for (var i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                result[j++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long key) {
+        var index = mix(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    // backward-shift deletion, keeps probe chains intact without tombstones
+    private void shiftKeys(int pos) {
+        while (true) {
+            var last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (values[pos] == null) {
+                    values[last] = null;
+                    return;
+                }
+                var slot = mix(keys[pos]) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(newCapacity);
+        for (var i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                var index = mix(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        var n = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        return Math.max(n, 2);
+    }
+
+    private static int mix(long key) {
+        var h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -25,5 +25,6 @@ import org.jetbrains.annotations.NotNull;
 @UtilityClass
 public class Constants {
     public static final @NotNull String MESSAGING_CHANNEL = "ScreamingSandalsMinigameV1";
+    public static final @NotNull String BATCH_MESSAGING_CHANNEL = "ScreamingSandalsMinigameV1Batch";
     public static final int PROTOCOL_VERSION = 1;
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Output of the compact codec. {@link PacketUtils} writes integers as varints and interns repeated strings and UUIDs
+ * when writing to this stream. The interning tables only live for one frame, so a lost message cannot desynchronise peers.
+ */
+public class CompactDataOutputStream extends DataOutputStream {
+    static final int MAX_INTERNED = 1024;
+
+    final @NotNull Map<@NotNull String, Integer> strings = new HashMap<>();
+    final @NotNull Map<@NotNull UUID, Integer> uuids = new HashMap<>();
+
+    public CompactDataOutputStream(@NotNull OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Clears the interning tables before the stream is reused for another frame.
+     */
+    public void resetTables() {
+        strings.clear();
+        uuids.clear();
+    }
+}
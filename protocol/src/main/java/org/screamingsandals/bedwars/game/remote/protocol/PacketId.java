@@ -23,8 +23,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameListRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateDeltaPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStatePacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateRequestPacket;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateResyncRequestPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.GameStateSubscribePacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.HelloPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.JoinGamePacket;
@@ -34,6 +36,8 @@ import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public enum PacketId {
     // When editing, do NOT: change order, add new elements between existing elements, remove existing elements
@@ -45,9 +49,23 @@ public enum PacketId {
     MINIGAME_SERVER_INFO(MinigameServerInfoPacket.class, MinigameServerInfoPacket::new),
     MINIGAME_SERVER_INFO_REQUEST(MinigameServerInfoRequestPacket.class, MinigameServerInfoRequestPacket::new),
     GAME_STATE_SUBSCRIBE(GameStateSubscribePacket.class, GameStateSubscribePacket::new),
-    HELLO(HelloPacket.class, HelloPacket::new);
+    HELLO(HelloPacket.class, HelloPacket::new),
+    GAME_STATE_DELTA(GameStateDeltaPacket.class, GameStateDeltaPacket::new),
+    GAME_STATE_RESYNC_REQUEST(GameStateResyncRequestPacket.class, GameStateResyncRequestPacket::new);
+
+    /**
+     * Set in the id byte of frames encoded with the compact codec.
+     */
+    public static final int COMPACT_FLAG = 0x80;
 
     private static final @NotNull PacketId @NotNull [] VALUES = values();
+    private static final @NotNull Map<@NotNull Class<? extends Packet>, @NotNull PacketId> BY_CLASS = new HashMap<>();
+
+    static {
+        for (var value : VALUES) {
+            BY_CLASS.put(value.packetClass, value);
+        }
+    }
 
     private final @NotNull Class<? extends Packet> packetClass;
     private final @NotNull PacketConstructor<? extends Packet> constructor;
@@ -58,7 +76,7 @@ public enum PacketId {
     }
 
     public static @Nullable PacketId byId(int id) {
-        if (id < 0 || id > VALUES.length) {
+        if (id < 0 || id >= VALUES.length) {
             return null;
         }
 
@@ -66,13 +84,16 @@ public enum PacketId {
     }
 
     public static @Nullable PacketId byClass(@NotNull Class<? extends Packet> packetClass) {
-        for (var value : VALUES) {
-            if (value.packetClass == packetClass) {
-                return value;
-            }
-        }
+        return BY_CLASS.get(packetClass);
+    }
 
-        return null;
+    /**
+     * @param header the first byte of the frame, with or without {@link #COMPACT_FLAG}
+     * @return whether the packet carries game state, which clients may ask the relay not to send them
+     */
+    public static boolean isGameState(int header) {
+        var id = header & ~COMPACT_FLAG;
+        return id == GAME_STATE.getId() || id == GAME_STATE_DELTA.getId();
     }
 
     public int getId() {
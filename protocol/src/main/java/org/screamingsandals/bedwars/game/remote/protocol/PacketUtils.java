@@ -26,26 +26,176 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 
 @UtilityClass
 public class PacketUtils {
     public static @NotNull String readStandardUTF(@NotNull DataInputStream inputStream) throws IOException {
+        if (inputStream instanceof CompactDataInputStream) {
+            var strings = ((CompactDataInputStream) inputStream).strings;
+            var index = readVarInt(inputStream);
+            if (index != 0) {
+                return lookup(strings, index);
+            }
+
+            var value = new String(inputStream.readNBytes(readVarInt(inputStream)), StandardCharsets.UTF_8);
+            if (strings.size() < CompactDataOutputStream.MAX_INTERNED) {
+                strings.add(value);
+            }
+            return value;
+        }
+
         return new String(inputStream.readNBytes(inputStream.readUnsignedShort()), StandardCharsets.UTF_8);
     }
 
     public static void writeStandardUTF(@NotNull DataOutputStream outputStream, @NotNull String payload) throws IOException {
+        if (outputStream instanceof CompactDataOutputStream) {
+            var strings = ((CompactDataOutputStream) outputStream).strings;
+            var index = strings.get(payload);
+            if (index != null) {
+                writeVarInt(outputStream, index + 1);
+                return;
+            }
+
+            var bytes = payload.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(outputStream, 0);
+            writeVarInt(outputStream, bytes.length);
+            outputStream.write(bytes);
+            if (strings.size() < CompactDataOutputStream.MAX_INTERNED) {
+                strings.put(payload, strings.size());
+            }
+            return;
+        }
+
         var bytes = payload.getBytes(StandardCharsets.UTF_8);
         outputStream.writeShort(bytes.length);
         outputStream.write(bytes);
     }
 
     public static @NotNull UUID readUuid(@NotNull DataInputStream inputStream) throws IOException {
+        if (inputStream instanceof CompactDataInputStream) {
+            var uuids = ((CompactDataInputStream) inputStream).uuids;
+            var index = readVarInt(inputStream);
+            if (index != 0) {
+                return lookup(uuids, index);
+            }
+
+            var value = new UUID(inputStream.readLong(), inputStream.readLong());
+            if (uuids.size() < CompactDataOutputStream.MAX_INTERNED) {
+                uuids.add(value);
+            }
+            return value;
+        }
+
         return new UUID(inputStream.readLong(), inputStream.readLong());
     }
 
     public static void writeUuid(@NotNull DataOutputStream outputStream, @NotNull UUID uuid) throws IOException {
+        if (outputStream instanceof CompactDataOutputStream) {
+            var uuids = ((CompactDataOutputStream) outputStream).uuids;
+            var index = uuids.get(uuid);
+            if (index != null) {
+                writeVarInt(outputStream, index + 1);
+                return;
+            }
+
+            writeVarInt(outputStream, 0);
+            if (uuids.size() < CompactDataOutputStream.MAX_INTERNED) {
+                uuids.put(uuid, uuids.size());
+            }
+        }
+
         outputStream.writeLong(uuid.getMostSignificantBits());
         outputStream.writeLong(uuid.getLeastSignificantBits());
     }
+
+    /**
+     * Reads an int, which the compact codec stores as a zigzag varint.
+     */
+    public static int readInt(@NotNull DataInputStream inputStream) throws IOException {
+        if (inputStream instanceof CompactDataInputStream) {
+            var value = readVarInt(inputStream);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        return inputStream.readInt();
+    }
+
+    public static void writeInt(@NotNull DataOutputStream outputStream, int value) throws IOException {
+        if (outputStream instanceof CompactDataOutputStream) {
+            writeVarInt(outputStream, (value << 1) ^ (value >> 31));
+            return;
+        }
+
+        outputStream.writeInt(value);
+    }
+
+    /**
+     * Reads a long, which the compact codec stores as a zigzag varlong.
+     */
+    public static long readLong(@NotNull DataInputStream inputStream) throws IOException {
+        if (inputStream instanceof CompactDataInputStream) {
+            var value = readVarLong(inputStream);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        return inputStream.readLong();
+    }
+
+    public static void writeLong(@NotNull DataOutputStream outputStream, long value) throws IOException {
+        if (outputStream instanceof CompactDataOutputStream) {
+            writeVarLong(outputStream, (value << 1) ^ (value >> 63));
+            return;
+        }
+
+        outputStream.writeLong(value);
+    }
+
+    public static int readVarInt(@NotNull DataInputStream inputStream) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            var b = inputStream.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    public static void writeVarInt(@NotNull DataOutputStream outputStream, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            outputStream.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        outputStream.writeByte(value);
+    }
+
+    public static long readVarLong(@NotNull DataInputStream inputStream) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            var b = inputStream.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarLong is too big");
+    }
+
+    public static void writeVarLong(@NotNull DataOutputStream outputStream, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            outputStream.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        outputStream.writeByte((int) value);
+    }
+
+    private static <T> @NotNull T lookup(@NotNull List<@NotNull T> table, int index) throws IOException {
+        if (index < 1 || index > table.size()) {
+            throw new IOException("Invalid interned value reference " + index);
+        }
+        return table.get(index - 1);
+    }
 }
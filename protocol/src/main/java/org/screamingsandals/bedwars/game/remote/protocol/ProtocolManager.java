@@ -19,8 +19,11 @@
 
 package org.screamingsandals.bedwars.game.remote.protocol;
 
+import lombok.Getter;
+import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
 import org.screamingsandals.bedwars.game.remote.protocol.messaging.Messenger;
+import org.screamingsandals.bedwars.game.remote.protocol.packets.HelloPacket;
 import org.screamingsandals.bedwars.game.remote.protocol.packets.Packet;
 
 import java.io.ByteArrayInputStream;
@@ -28,45 +31,132 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 // TODO: custom sockets and redis
 public abstract class ProtocolManager {
+    /**
+     * Codec bit advertised in {@link HelloPacket}: varints and interned strings/UUIDs, see {@link CompactDataOutputStream}.
+     */
+    public static final int CODEC_COMPACT = 1;
+    /**
+     * Codec bit advertised in {@link HelloPacket}: the server unpacks batched BungeeCord frames.
+     */
+    public static final int CODEC_BATCHED_FRAMES = 2;
+
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final @NotNull ThreadLocal<EncodeBuffer> ENCODE_BUFFER = ThreadLocal.withInitial(EncodeBuffer::new);
+
+    private final @NotNull Map<@NotNull String, Integer> peerCodecs = new ConcurrentHashMap<>();
+    @Getter
+    @Setter
+    private volatile int supportedCodecs = CODEC_COMPACT;
+
     protected void processIncoming(byte @NotNull [] payload) throws Exception {
-        var input = new DataInputStream(new ByteArrayInputStream(payload));
+        var stream = new ByteArrayInputStream(payload);
 
-        int packetIdInt = input.readUnsignedByte();
+        int header = stream.read();
+        if (header < 0) {
+            throw new IOException("Empty BedWars packet");
+        }
+        var input = (header & PacketId.COMPACT_FLAG) != 0 ? new CompactDataInputStream(stream) : new DataInputStream(stream);
+
+        int packetIdInt = header & ~PacketId.COMPACT_FLAG;
         var packetId = PacketId.byId(packetIdInt);
         if (packetId == null) {
             throw new RuntimeException("Unknown BedWars packet ID " + packetIdInt);
         }
         var packet = packetId.read(input);
 
+        if (packet instanceof HelloPacket) {
+            peerCodecs.put(((HelloPacket) packet).getServerName(), ((HelloPacket) packet).getSupportedCodecs());
+        }
+
         receivePacket0(packet);
     }
 
     public void sendPacket(@NotNull String server, @NotNull Packet packet) throws IOException {
-        getMessenger().sendPacket(server, encodePacket(packet));
+        getMessenger().sendPacket(server, encodePacket(packet, useCompactCodec(server, packet)));
     }
 
     public void broadcastPacket(@NotNull Packet packet) throws IOException {
-        getMessenger().broadcastPacket(encodePacket(packet));
+        // receivers are not known, so only the standard codec is safe
+        getMessenger().broadcastPacket(encodePacket(packet, false));
+    }
+
+    /**
+     * Same as {@link #sendPacket(String, Packet)}, but never blocks the caller on the network.
+     */
+    public @NotNull CompletableFuture<Void> sendPacketAsync(@NotNull String server, @NotNull Packet packet) {
+        try {
+            return getMessenger().sendPacketAsync(server, encodePacket(packet, useCompactCodec(server, packet)));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public @NotNull CompletableFuture<Void> broadcastPacketAsync(@NotNull Packet packet) {
+        try {
+            return getMessenger().broadcastPacketAsync(encodePacket(packet, false));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
-    private byte @NotNull [] encodePacket(@NotNull Packet packet) throws IOException {
-        var out = new ByteArrayOutputStream();
-        var dout = new DataOutputStream(out);
+    /**
+     * @return whether the server announced it understands the codec in its {@link HelloPacket}
+     */
+    public boolean peerSupports(@NotNull String server, int codec) {
+        return (peerCodecs.getOrDefault(server, 0) & codec) != 0;
+    }
+
+    private boolean useCompactCodec(@NotNull String server, @NotNull Packet packet) {
+        return !(packet instanceof HelloPacket) && (supportedCodecs & CODEC_COMPACT) != 0 && peerSupports(server, CODEC_COMPACT);
+    }
 
+    private byte @NotNull [] encodePacket(@NotNull Packet packet, boolean compact) throws IOException {
         PacketId packetId = PacketId.byClass(packet.getClass());
         if (packetId == null) {
             throw new IllegalArgumentException("Unknown packet passed: " + packet.getClass().getName());
         }
-        dout.write(packetId.getId());
-        packet.write(dout);
 
-        return out.toByteArray();
+        var buffer = ENCODE_BUFFER.get();
+        try {
+            buffer.reset();
+            var dout = compact ? buffer.compactOutput : buffer.standardOutput;
+            dout.write(compact ? packetId.getId() | PacketId.COMPACT_FLAG : packetId.getId());
+            packet.write(dout);
+
+            return buffer.toByteArray();
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                ENCODE_BUFFER.remove(); // do not keep an unusually large packet's buffer around
+            }
+        }
     }
 
     protected abstract void receivePacket0(@NotNull Packet packet);
 
     protected abstract @NotNull Messenger getMessenger();
+
+    private static class EncodeBuffer extends ByteArrayOutputStream {
+        private final @NotNull DataOutputStream standardOutput = new DataOutputStream(this);
+        private final @NotNull CompactDataOutputStream compactOutput = new CompactDataOutputStream(this);
+
+        private EncodeBuffer() {
+            super(512);
+        }
+
+        @Override
+        public synchronized void reset() {
+            super.reset();
+            compactOutput.resetTables();
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+    }
 }
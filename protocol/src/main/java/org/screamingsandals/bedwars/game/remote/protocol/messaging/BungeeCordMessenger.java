@@ -19,7 +19,6 @@
 
 package org.screamingsandals.bedwars.game.remote.protocol.messaging;
 
-import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.screamingsandals.bedwars.game.remote.Constants;
@@ -29,45 +28,147 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-@RequiredArgsConstructor
 public final class BungeeCordMessenger implements Messenger {
+    public static final @NotNull String BROADCAST_TARGET = "ONLINE";
+    // limit of a whole plugin message, including the Forward header
+    private static final int MAX_MESSAGE_SIZE = Short.MAX_VALUE;
+
     private final @NotNull Consumer<byte @NotNull []> packetSender;
+    private final @Nullable PacketBatcher batcher;
+    private final @NotNull Predicate<@NotNull String> acceptsBatches;
+
+    public BungeeCordMessenger(@NotNull Consumer<byte @NotNull []> packetSender) {
+        this(packetSender, null, target -> false, (target, lostPayloads, exception) -> {});
+    }
+
+    /**
+     * @param flushScheduler runs the flush of a batch after the batching window, null disables batching
+     * @param acceptsBatches whether the target server (or {@link #BROADCAST_TARGET}) can read batched frames
+     * @param failureHandler told about batches lost because a scheduled flush failed
+     */
+    public BungeeCordMessenger(@NotNull Consumer<byte @NotNull []> packetSender, @Nullable Consumer<@NotNull Runnable> flushScheduler, @NotNull Predicate<@NotNull String> acceptsBatches, PacketBatcher.@NotNull FailureHandler failureHandler) {
+        this.packetSender = packetSender;
+        this.batcher = flushScheduler != null ? new PacketBatcher(BungeeCordMessenger::maxBatchSize, flushScheduler, this::sendFrame, failureHandler) : null;
+        this.acceptsBatches = acceptsBatches;
+    }
 
     @Override
     public void sendPacket(@NotNull String server, byte @NotNull [] payload) throws IOException {
-        var bout = new ByteArrayOutputStream();
-        var bungeeDout = new DataOutputStream(bout);
-        bungeeDout.writeUTF("Forward");
-        bungeeDout.writeUTF(server);
-        bungeeDout.writeUTF(Constants.MESSAGING_CHANNEL);
-        bungeeDout.writeShort(payload.length);
-        bungeeDout.write(payload);
-
-        packetSender.accept(bout.toByteArray());
+        send(server, payload);
     }
 
     @Override
     public void broadcastPacket(byte @NotNull [] payload) throws IOException {
+        send(BROADCAST_TARGET, payload);
+    }
+
+    private void send(@NotNull String target, byte @NotNull [] payload) throws IOException {
+        if (batcher != null) {
+            if (PacketBatcher.entrySize(payload) <= maxBatchSize(target) && acceptsBatches.test(target)) {
+                batcher.add(target, payload);
+                return;
+            }
+            // whatever is queued for the target was sent earlier, it has to arrive first
+            batcher.flush(target);
+        }
+        sendFrame(target, List.of(payload));
+    }
+
+    private void sendFrame(@NotNull String target, @NotNull List<byte @NotNull []> payloads) throws IOException {
         var bout = new ByteArrayOutputStream();
         var bungeeDout = new DataOutputStream(bout);
         bungeeDout.writeUTF("Forward");
-        bungeeDout.writeUTF("ONLINE");
-        bungeeDout.writeUTF(Constants.MESSAGING_CHANNEL);
-        bungeeDout.writeShort(payload.length);
-        bungeeDout.write(payload);
+        bungeeDout.writeUTF(target);
+        if (payloads.size() == 1) {
+            var payload = payloads.get(0);
+            bungeeDout.writeUTF(Constants.MESSAGING_CHANNEL);
+            bungeeDout.writeShort(payload.length);
+            bungeeDout.write(payload);
+        } else {
+            var size = 0;
+            for (var payload : payloads) {
+                size += PacketBatcher.entrySize(payload);
+            }
+            if (size > maxBatchSize(target)) {
+                throw new IOException("Batch of " + size + " bytes does not fit into a plugin message to " + target);
+            }
+            bungeeDout.writeUTF(Constants.BATCH_MESSAGING_CHANNEL);
+            // read back as an unsigned short, the check above keeps it below 65536
+            bungeeDout.writeShort(size);
+            for (var payload : payloads) {
+                bungeeDout.writeShort(payload.length);
+                bungeeDout.write(payload);
+            }
+        }
 
         packetSender.accept(bout.toByteArray());
     }
 
+    /**
+     * @return how many bytes of batch entries fit into one plugin message to the target
+     */
+    private static int maxBatchSize(@NotNull String target) {
+        var header = utfSize("Forward") + utfSize(target) + utfSize(Constants.BATCH_MESSAGING_CHANNEL) + Short.BYTES;
+        return MAX_MESSAGE_SIZE - header;
+    }
+
+    /**
+     * @return bytes written by {@link DataOutputStream#writeUTF(String)}
+     */
+    private static int utfSize(@NotNull String value) {
+        var size = Short.BYTES;
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                size += 1;
+            } else if (c > 0x07FF) {
+                size += 3;
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Sends everything that is still waiting for its batching window.
+     */
+    public void flush() {
+        if (batcher != null) {
+            batcher.flushAll();
+        }
+    }
+
+    /**
+     * Sends what is waiting for the server right away, while a player is still online to carry it.
+     */
+    public void flush(@NotNull String server) {
+        if (batcher != null) {
+            batcher.flush(server);
+        }
+    }
+
     @Override
-    public byte @Nullable [] incomingPacketTransformer(byte @NotNull [] payload) throws IOException {
+    public @Nullable List<byte @NotNull []> incomingPacketTransformer(byte @NotNull [] payload) throws IOException {
         var outerIn = new DataInputStream(new ByteArrayInputStream(payload));
-        if (!Constants.MESSAGING_CHANNEL.equals(outerIn.readUTF())) {
+        var channel = outerIn.readUTF();
+        if (Constants.MESSAGING_CHANNEL.equals(channel)) {
+            return List.of(outerIn.readNBytes(outerIn.readShort()));
+        }
+        if (!Constants.BATCH_MESSAGING_CHANNEL.equals(channel)) {
             return null;
         }
 
-        return outerIn.readNBytes(outerIn.readShort());
+        var batchIn = new DataInputStream(new ByteArrayInputStream(outerIn.readNBytes(outerIn.readUnsignedShort())));
+        var payloads = new ArrayList<byte @NotNull []>();
+        while (batchIn.available() > 0) {
+            payloads.add(batchIn.readNBytes(batchIn.readUnsignedShort()));
+        }
+        return payloads;
     }
 }
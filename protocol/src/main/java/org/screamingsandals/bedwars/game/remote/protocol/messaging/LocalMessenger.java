@@ -0,0 +1,522 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketId;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exchanges packets directly between servers running on the same machine, without a relay in between. Each server
+ * listens on its own endpoint registered in a shared directory (see {@link LocalTransport}) and keeps one outgoing
+ * connection per peer, written by a single thread without blocking. A peer which stops reading is dropped after
+ * {@link #WRITE_TIMEOUT_MILLIS}, so it can't hold up the others.
+ */
+public final class LocalMessenger implements ServerNameAwareMessenger, IgnoreCapableMessenger {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int MAX_FRAMES_PER_FLUSH = 64;
+    private static final long PEER_REFRESH_MILLIS = 1000;
+    private static final long WRITE_TIMEOUT_MILLIS = 5000;
+    private static final long BACKLOG_RETRY_MILLIS = 5;
+    private static final @NotNull ErrorHandler PRINT_ERRORS = (message, exception) -> {
+        System.out.println(message);
+        exception.printStackTrace();
+    };
+
+    private final @NotNull LocalTransport transport;
+    private final @NotNull Consumer<byte @NotNull []> packetHandler;
+    private final @NotNull Consumer<@NotNull Runnable> threadCreator;
+    private final @NotNull ErrorHandler errorHandler;
+    private final @NotNull BlockingQueue<@NotNull OutgoingFrame> queue;
+    // only touched by the writer thread
+    private final @NotNull Map<@NotNull String, Connection> connections = new HashMap<>();
+    private @NotNull Set<@NotNull String> peers = Set.of();
+    private long peersRefreshedAt;
+    private volatile @Nullable String identifier;
+    private volatile boolean ignoringIncomingState;
+    private volatile boolean running = true;
+    private @Nullable ServerSocketChannel listener;
+    private @Nullable String listenerName;
+    private @Nullable Thread writerThread;
+
+    public LocalMessenger(@NotNull Path directory, @Nullable String identifier, @NotNull Consumer<byte @NotNull []> packetHandler, @NotNull Consumer<@NotNull Runnable> threadCreator) {
+        this(directory, true, identifier, packetHandler, threadCreator, DEFAULT_QUEUE_CAPACITY, PRINT_ERRORS);
+    }
+
+    /**
+     * @param preferUnixDomainSockets whether to use Unix domain sockets when the JVM supports them, loopback TCP is used otherwise
+     * @param errorHandler told about failures which are not reported through the future of a sent packet
+     */
+    public LocalMessenger(@NotNull Path directory, boolean preferUnixDomainSockets, @Nullable String identifier, @NotNull Consumer<byte @NotNull []> packetHandler, @NotNull Consumer<@NotNull Runnable> threadCreator, int queueCapacity, @NotNull ErrorHandler errorHandler) {
+        this.transport = LocalTransport.create(directory, preferUnixDomainSockets);
+        this.identifier = identifier;
+        this.packetHandler = packetHandler;
+        this.threadCreator = threadCreator;
+        this.errorHandler = errorHandler;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public @NotNull String getTransportDescription() {
+        return transport.getDescription();
+    }
+
+    /**
+     * Binds the endpoint of this server, which requires the server name to be known, and starts the writer thread.
+     */
+    public synchronized void start() throws IOException {
+        if (!running) {
+            return;
+        }
+
+        if (writerThread == null) {
+            writerThread = new Thread(this::writeLoop, "BedWars Local Messenger Writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+
+        var identifier = this.identifier;
+        if (listener == null && identifier != null) {
+            var listener = transport.bind(identifier);
+            this.listener = listener;
+            this.listenerName = identifier;
+            threadCreator.accept(() -> acceptLoop(listener));
+        }
+    }
+
+    /**
+     * Unregisters this server and closes all connections. Frames still queued are failed.
+     */
+    public void close() {
+        running = false;
+        synchronized (this) {
+            if (writerThread != null) {
+                writerThread.interrupt();
+                writerThread = null;
+            }
+            closeListener();
+        }
+
+        var error = new IOException("Local messenger has been closed");
+        OutgoingFrame frame;
+        while ((frame = queue.poll()) != null) {
+            frame.future.completeExceptionally(error);
+        }
+    }
+
+    @Override
+    public void sendPacket(@NotNull String server, byte @NotNull [] payload) throws IOException {
+        checkQueued(sendPacketAsync(server, payload));
+    }
+
+    @Override
+    public void broadcastPacket(byte @NotNull [] payload) throws IOException {
+        checkQueued(broadcastPacketAsync(payload));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> sendPacketAsync(@NotNull String server, byte @NotNull [] payload) {
+        return enqueue(LocalTransport.fileName(server), payload);
+    }
+
+    /**
+     * Sends the payload to every other registered server, the future does not tell whether all of them received it.
+     */
+    @Override
+    public @NotNull CompletableFuture<Void> broadcastPacketAsync(byte @NotNull [] payload) {
+        return enqueue(null, payload);
+    }
+
+    @Override
+    public void setServerName(@NotNull String serverName) {
+        if (serverName.equals(identifier)) {
+            return;
+        }
+
+        identifier = serverName;
+        synchronized (this) {
+            closeListener();
+            try {
+                start();
+            } catch (IOException e) {
+                errorHandler.error("Could not register this server for local communication as " + serverName, e);
+            }
+        }
+    }
+
+    /**
+     * There is no relay to filter game states for us, so they are dropped when received.
+     */
+    @Override
+    public void ignoreIncomingState() {
+        ignoringIncomingState = true;
+    }
+
+    @Override
+    public void stopIgnoreIncomingState() {
+        ignoringIncomingState = false;
+    }
+
+    private @NotNull CompletableFuture<Void> enqueue(@Nullable String target, byte @NotNull [] payload) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IOException("Local messenger has been closed"));
+        }
+
+        var outgoing = new OutgoingFrame(target, payload, new CompletableFuture<>());
+        if (!queue.offer(outgoing)) {
+            return CompletableFuture.failedFuture(new IOException("Outgoing queue of the local messenger is full"));
+        }
+        return outgoing.future;
+    }
+
+    private void checkQueued(@NotNull CompletableFuture<Void> future) throws IOException {
+        if (future.isCompletedExceptionally()) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            }
+        }
+    }
+
+    private void acceptLoop(@NotNull ServerSocketChannel listener) {
+        try {
+            while (running && listener.isOpen()) {
+                var channel = listener.accept();
+                threadCreator.accept(() -> readLoop(channel));
+            }
+        } catch (IOException ignored) {
+            // listener closed
+        }
+    }
+
+    private void readLoop(@NotNull SocketChannel channel) {
+        try (channel; var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+            while (running) {
+                var size = in.readInt();
+                var payload = in.readNBytes(size);
+                if (payload.length < size) {
+                    break;
+                }
+                if (ignoringIncomingState && size > 0 && PacketId.isGameState(Byte.toUnsignedInt(payload[0]))) {
+                    continue;
+                }
+                packetHandler.accept(payload);
+            }
+        } catch (IOException ignored) {
+            // peer went away
+        }
+    }
+
+    private void writeLoop() {
+        var batch = new ArrayList<OutgoingFrame>();
+
+        while (running) {
+            try {
+                // peers which did not take everything are retried soon, even if nothing new is queued
+                var first = queue.poll(hasBacklog() ? BACKLOG_RETRY_MILLIS : 1000, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_FRAMES_PER_FLUSH - 1);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            for (var frame : batch) {
+                if (frame.target != null) {
+                    var connection = connection(frame.target);
+                    if (connection == null) {
+                        frame.future.completeExceptionally(new IOException("Server " + frame.target + " is not reachable through " + transport.getDescription()));
+                        continue;
+                    }
+                    connection.append(frame);
+                } else {
+                    for (var peer : peers()) {
+                        var connection = connection(peer);
+                        if (connection != null) {
+                            connection.append(frame);
+                        }
+                    }
+                }
+            }
+
+            var now = System.currentTimeMillis();
+            for (var connection : List.copyOf(connections.values())) {
+                if (!connection.hasBacklog()) {
+                    continue;
+                }
+                if (!connection.flush()) {
+                    // try once more with a fresh connection, which takes over the frames
+                    var retry = connection(connection.peer);
+                    if (retry != null && !retry.flush()) {
+                        drop(retry, new IOException("Could not deliver packet to " + retry.peer));
+                    }
+                } else if (connection.isStalled(now)) {
+                    var error = new IOException("Server " + connection.peer + " did not read any packet for " + WRITE_TIMEOUT_MILLIS + " ms");
+                    errorHandler.error("Dropping the local connection to a server which stopped reading", error);
+                    drop(connection, error);
+                }
+            }
+
+            // targeted frames are completed once their connection took them, broadcasts don't wait for that
+            batch.forEach(frame -> {
+                if (frame.target == null) {
+                    frame.future.complete(null);
+                }
+            });
+            batch.clear();
+        }
+
+        var error = new IOException("Local messenger has been closed");
+        batch.forEach(frame -> frame.future.completeExceptionally(error));
+        for (var connection : List.copyOf(connections.values())) {
+            drop(connection, error);
+        }
+    }
+
+    private boolean hasBacklog() {
+        for (var connection : connections.values()) {
+            if (connection.hasBacklog()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drop(@NotNull Connection connection, @NotNull IOException error) {
+        connection.close();
+        connections.remove(connection.peer, connection);
+        fail(connection.takeUnconfirmed(), error);
+    }
+
+    private static void fail(@NotNull List<@NotNull OutgoingFrame> frames, @NotNull IOException error) {
+        for (var frame : frames) {
+            if (frame.target != null) {
+                frame.future.completeExceptionally(error);
+            }
+        }
+    }
+
+    private @NotNull Set<@NotNull String> peers() {
+        var now = System.currentTimeMillis();
+        if (now - peersRefreshedAt >= PEER_REFRESH_MILLIS) {
+            peersRefreshedAt = now;
+            try {
+                var registered = transport.registeredServers();
+                var identifier = this.identifier;
+                if (identifier != null) {
+                    registered.remove(LocalTransport.fileName(identifier));
+                }
+                peers = registered;
+            } catch (IOException e) {
+                peers = Set.of();
+            }
+            for (var connection : List.copyOf(connections.values())) {
+                if (!peers.contains(connection.peer)) {
+                    drop(connection, new IOException("Server " + connection.peer + " is no longer registered"));
+                }
+            }
+        }
+        return peers;
+    }
+
+    private @Nullable Connection connection(@NotNull String peer) {
+        var connection = connections.get(peer);
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+
+        // a peer that restarted leaves a dead connection behind, what it did not take is sent over a fresh one
+        var unconfirmed = connection != null ? connection.takeUnconfirmed() : List.<OutgoingFrame>of();
+        connections.remove(peer);
+        try {
+            var channel = transport.connect(peer);
+            try {
+                channel.configureBlocking(false);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            connection = new Connection(peer, channel);
+            connections.put(peer, connection);
+            unconfirmed.forEach(connection::append);
+            return connection;
+        } catch (IOException e) {
+            fail(unconfirmed, new IOException("Could not deliver packet to " + peer, e));
+            return null;
+        }
+    }
+
+    private void closeListener() {
+        if (listener != null) {
+            try {
+                listener.close();
+            } catch (IOException ignored) {
+            }
+            listener = null;
+        }
+        if (listenerName != null) {
+            transport.unregister(listenerName);
+            listenerName = null;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class OutgoingFrame {
+        private final @Nullable String target;
+        private final byte @NotNull [] payload;
+        private final @NotNull CompletableFuture<Void> future;
+    }
+
+    public interface ErrorHandler {
+        void error(@NotNull String message, @NotNull Exception exception);
+    }
+
+    private static class Connection {
+        private final @NotNull String peer;
+        private final @NotNull SocketChannel channel;
+        private final @NotNull ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        // frames appended since everything was last written
+        private final @NotNull List<@NotNull OutgoingFrame> unconfirmed = new ArrayList<>();
+        private final @NotNull ByteBuffer probe = ByteBuffer.allocate(1);
+        private @Nullable ByteBuffer writing;
+        private long lastProgressAt;
+        private boolean closed;
+
+        private Connection(@NotNull String peer, @NotNull SocketChannel channel) {
+            this.peer = peer;
+            this.channel = channel;
+        }
+
+        private void append(@NotNull OutgoingFrame frame) {
+            var payload = frame.payload;
+            pending.write(payload.length >>> 24);
+            pending.write(payload.length >>> 16);
+            pending.write(payload.length >>> 8);
+            pending.write(payload.length);
+            pending.writeBytes(payload);
+            unconfirmed.add(frame);
+        }
+
+        private boolean hasBacklog() {
+            return writing != null || pending.size() > 0;
+        }
+
+        /**
+         * Writes as much as the peer takes without blocking, frames are completed once everything has been written.
+         *
+         * @return false if the connection failed
+         */
+        private boolean flush() {
+            var now = System.currentTimeMillis();
+            if (writing == null) {
+                lastProgressAt = now;
+            }
+            try {
+                while (true) {
+                    if (writing == null) {
+                        if (pending.size() == 0) {
+                            break;
+                        }
+                        writing = ByteBuffer.wrap(pending.toByteArray());
+                        pending.reset();
+                    }
+                    if (channel.write(writing) > 0) {
+                        lastProgressAt = now;
+                    }
+                    if (writing.hasRemaining()) {
+                        // the socket buffer is full, the rest waits for the next round
+                        return true;
+                    }
+                    writing = null;
+                }
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+
+            unconfirmed.forEach(frame -> frame.future.complete(null));
+            unconfirmed.clear();
+            return true;
+        }
+
+        private boolean isStalled(long now) {
+            return hasBacklog() && now - lastProgressAt >= WRITE_TIMEOUT_MILLIS;
+        }
+
+        /**
+         * Peers never write to connections we opened, so reading only detects that they went away.
+         */
+        private boolean isOpen() {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (channel.read(probe) >= 0) {
+                    probe.clear();
+                    return true;
+                }
+            } catch (IOException ignored) {
+            }
+            close();
+            return false;
+        }
+
+        /**
+         * Discards everything not written yet and returns the frames it belonged to.
+         */
+        private @NotNull List<@NotNull OutgoingFrame> takeUnconfirmed() {
+            var frames = List.copyOf(unconfirmed);
+            unconfirmed.clear();
+            pending.reset();
+            writing = null;
+            return frames;
+        }
+
+        private void close() {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
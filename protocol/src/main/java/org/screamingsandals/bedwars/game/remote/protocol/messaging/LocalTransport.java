@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol.messaging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Endpoints of servers running on the same machine. Every server registers itself as a file in a shared directory:
+ * {@code <name>.sock} is a Unix domain socket (Java 16+), {@code <name>.port} holds the loopback TCP port otherwise.
+ */
+abstract class LocalTransport {
+    static final @NotNull String SOCKET_SUFFIX = ".sock";
+    static final @NotNull String PORT_SUFFIX = ".port";
+
+    private static final @Nullable ProtocolFamily UNIX_FAMILY;
+    private static final @Nullable Method UNIX_ADDRESS_OF;
+    private static final @Nullable Method OPEN_SOCKET_CHANNEL;
+    private static final @Nullable Method OPEN_SERVER_SOCKET_CHANNEL;
+
+    static {
+        // looked up reflectively, the protocol still targets Java 11
+        ProtocolFamily family = null;
+        Method addressOf = null;
+        Method openSocket = null;
+        Method openServerSocket = null;
+        try {
+            family = StandardProtocolFamily.valueOf("UNIX");
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class);
+            openSocket = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+            openServerSocket = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+        } catch (IllegalArgumentException | ReflectiveOperationException ignored) {
+            family = null;
+        }
+        UNIX_FAMILY = family;
+        UNIX_ADDRESS_OF = addressOf;
+        OPEN_SOCKET_CHANNEL = openSocket;
+        OPEN_SERVER_SOCKET_CHANNEL = openServerSocket;
+    }
+
+    protected final @NotNull Path directory;
+
+    protected LocalTransport(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    static boolean isUnixDomainSocketSupported() {
+        return UNIX_FAMILY != null;
+    }
+
+    static @NotNull LocalTransport create(@NotNull Path directory, boolean preferUnixDomainSockets) {
+        return preferUnixDomainSockets && isUnixDomainSocketSupported() ? new UnixDomain(directory) : new Loopback(directory);
+    }
+
+    /**
+     * @return server name turned into something usable as a file name
+     */
+    static @NotNull String fileName(@NotNull String serverName) {
+        var builder = new StringBuilder(serverName.length());
+        for (int i = 0; i < serverName.length(); i++) {
+            var c = serverName.charAt(i);
+            builder.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Binds the endpoint of this server and registers it, replacing a stale registration of the same name.
+     */
+    abstract @NotNull ServerSocketChannel bind(@NotNull String serverName) throws IOException;
+
+    abstract void unregister(@NotNull String serverName);
+
+    abstract @NotNull String getDescription();
+
+    /**
+     * Connects to a registered server, over a Unix domain socket if possible.
+     */
+    @NotNull SocketChannel connect(@NotNull String serverName) throws IOException {
+        var name = fileName(serverName);
+        if (isUnixDomainSocketSupported()) {
+            var socketFile = directory.resolve(name + SOCKET_SUFFIX);
+            if (Files.exists(socketFile)) {
+                var channel = openUnix(OPEN_SOCKET_CHANNEL, SocketChannel.class);
+                try {
+                    channel.connect(unixAddress(socketFile));
+                    return channel;
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+            }
+        }
+
+        var portFile = directory.resolve(name + PORT_SUFFIX);
+        if (Files.exists(portFile)) {
+            int port;
+            try {
+                port = Integer.parseInt(Files.readString(portFile, StandardCharsets.UTF_8).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed port file " + portFile, e);
+            }
+            var channel = SocketChannel.open();
+            try {
+                channel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                channel.socket().setTcpNoDelay(true);
+                return channel;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        throw new IOException("Server " + serverName + " is not registered in " + directory);
+    }
+
+    /**
+     * @return file names of all registered servers, including this one
+     */
+    @NotNull Set<@NotNull String> registeredServers() throws IOException {
+        var servers = new HashSet<String>();
+        try (var files = Files.newDirectoryStream(directory)) {
+            for (var file : files) {
+                var name = file.getFileName().toString();
+                if (name.endsWith(PORT_SUFFIX)) {
+                    servers.add(name.substring(0, name.length() - PORT_SUFFIX.length()));
+                } else if (name.endsWith(SOCKET_SUFFIX) && isUnixDomainSocketSupported()) {
+                    servers.add(name.substring(0, name.length() - SOCKET_SUFFIX.length()));
+                }
+            }
+        }
+        return servers;
+    }
+
+    private static <T> @NotNull T openUnix(@Nullable Method factory, @NotNull Class<T> type) throws IOException {
+        try {
+            //noinspection ConstantConditions
+            return type.cast(factory.invoke(null, UNIX_FAMILY));
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static @NotNull SocketAddress unixAddress(@NotNull Path path) throws IOException {
+        try {
+            //noinspection ConstantConditions
+            return (SocketAddress) UNIX_ADDRESS_OF.invoke(null, path);
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            throw new IOException("Cannot create Unix domain socket address for " + path, e);
+        }
+    }
+
+    private static final class UnixDomain extends LocalTransport {
+        private UnixDomain(@NotNull Path directory) {
+            super(directory);
+        }
+
+        @Override
+        @NotNull ServerSocketChannel bind(@NotNull String serverName) throws IOException {
+            Files.createDirectories(directory);
+            var socketFile = directory.resolve(fileName(serverName) + SOCKET_SUFFIX);
+            Files.deleteIfExists(socketFile); // left behind by a crashed server, binding would fail
+            var channel = openUnix(OPEN_SERVER_SOCKET_CHANNEL, ServerSocketChannel.class);
+            try {
+                channel.bind(unixAddress(socketFile));
+                return channel;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        void unregister(@NotNull String serverName) {
+            try {
+                Files.deleteIfExists(directory.resolve(fileName(serverName) + SOCKET_SUFFIX));
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        @NotNull String getDescription() {
+            return "Unix domain sockets in " + directory;
+        }
+    }
+
+    private static final class Loopback extends LocalTransport {
+        private Loopback(@NotNull Path directory) {
+            super(directory);
+        }
+
+        @Override
+        @NotNull ServerSocketChannel bind(@NotNull String serverName) throws IOException {
+            Files.createDirectories(directory);
+            var channel = ServerSocketChannel.open();
+            try {
+                channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                // written next to the target and moved, readers never see a half written port
+                var portFile = directory.resolve(fileName(serverName) + PORT_SUFFIX);
+                var tempFile = Files.createTempFile(directory, fileName(serverName), ".tmp");
+                Files.writeString(tempFile, Integer.toString(channel.socket().getLocalPort()), StandardCharsets.UTF_8);
+                Files.move(tempFile, portFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return channel;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        void unregister(@NotNull String serverName) {
+            try {
+                Files.deleteIfExists(directory.resolve(fileName(serverName) + PORT_SUFFIX));
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        @NotNull String getDescription() {
+            return "loopback TCP, registered in " + directory;
+        }
+    }
+}
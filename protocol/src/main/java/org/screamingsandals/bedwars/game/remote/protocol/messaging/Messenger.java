@@ -23,13 +23,39 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface Messenger {
     void sendPacket(@NotNull String server, byte @NotNull [] payload) throws IOException;
 
     void broadcastPacket(byte @NotNull [] payload) throws IOException;
 
-    default byte @Nullable [] incomingPacketTransformer(byte @NotNull [] payload) throws IOException {
-        return payload;
+    /**
+     * @return future completed once the payload has been handed over to the transport
+     */
+    default @NotNull CompletableFuture<Void> sendPacketAsync(@NotNull String server, byte @NotNull [] payload) {
+        try {
+            sendPacket(server, payload);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    default @NotNull CompletableFuture<Void> broadcastPacketAsync(byte @NotNull [] payload) {
+        try {
+            broadcastPacket(payload);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return the packets carried by the message, or null if the message is not meant for us
+     */
+    default @Nullable List<byte @NotNull []> incomingPacketTransformer(byte @NotNull [] payload) throws IOException {
+        return List.of(payload);
     }
 }
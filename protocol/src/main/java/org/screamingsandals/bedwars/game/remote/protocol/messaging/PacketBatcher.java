@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Coalesces outgoing payloads per destination. Whatever was queued for a destination is handed to the frame sender
+ * once the flush scheduled by the first payload runs, or earlier if another payload would not fit the frame.
+ */
+@RequiredArgsConstructor
+public class PacketBatcher {
+    // bytes of entries which fit into one frame to the destination
+    private final @NotNull ToIntFunction<@NotNull String> maxBatchSize;
+    private final @NotNull Consumer<@NotNull Runnable> flushScheduler;
+    private final @NotNull FrameSender frameSender;
+    private final @NotNull FailureHandler failureHandler;
+    private final @NotNull Map<@NotNull String, Batch> batches = new HashMap<>();
+
+    public static int entrySize(byte @NotNull [] payload) {
+        return Short.BYTES + payload.length;
+    }
+
+    public synchronized void add(@NotNull String destination, byte @NotNull [] payload) throws IOException {
+        var batch = batches.get(destination);
+        if (batch == null) {
+            batch = new Batch();
+            batches.put(destination, batch);
+            flushScheduler.accept(() -> flush(destination));
+        } else if (batch.size + entrySize(payload) > maxBatchSize.applyAsInt(destination)) {
+            frameSender.send(destination, batch.payloads);
+            batch.payloads = new ArrayList<>();
+            batch.size = 0;
+        }
+
+        batch.payloads.add(payload);
+        batch.size += entrySize(payload);
+    }
+
+    public synchronized void flush(@NotNull String destination) {
+        var batch = batches.remove(destination);
+        if (batch == null || batch.payloads.isEmpty()) {
+            return;
+        }
+
+        try {
+            frameSender.send(destination, batch.payloads);
+        } catch (IOException e) {
+            failureHandler.failed(destination, batch.payloads.size(), e);
+        }
+    }
+
+    public synchronized void flushAll() {
+        List.copyOf(batches.keySet()).forEach(this::flush);
+    }
+
+    private static class Batch {
+        private @NotNull List<byte @NotNull []> payloads = new ArrayList<>();
+        private int size;
+    }
+
+    @FunctionalInterface
+    public interface FrameSender {
+        void send(@NotNull String destination, @NotNull List<byte @NotNull []> payloads) throws IOException;
+    }
+
+    /**
+     * Told about batches which could not be sent by a scheduled flush, there is no caller to throw to.
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+        void failed(@NotNull String destination, int lostPayloads, @NotNull IOException exception);
+    }
+}
@@ -19,125 +19,131 @@
 
 package org.screamingsandals.bedwars.game.remote.protocol.messaging;
 
-import lombok.Setter;
+import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.screamingsandals.bedwars.game.remote.protocol.PacketUtils;
 import org.screamingsandals.bedwars.game.remote.protocol.sockets.Action;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
-import java.io.EOFException;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+/**
+ * Talks to the socket relay. Outgoing frames are queued and written by a dedicated thread, which also (re)connects
+ * with exponential backoff and replays the handshake, so callers never block on the network.
+ */
 public final class SocketMessenger implements ServerNameAwareMessenger, IgnoreCapableMessenger {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long MIN_RECONNECT_DELAY_MILLIS = 250;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30000;
+    private static final int MAX_FRAMES_PER_FLUSH = 64;
+
     private final @NotNull String server;
     private final int port;
     private final @NotNull Consumer<byte @NotNull []> packetHandler;
     private final @NotNull Consumer<@NotNull Runnable> threadCreator;
-    private @Nullable String identifier;
-    private @Nullable Socket clientSocket;
-    private @Nullable DataOutputStream out;
-    private @Nullable DataInputStream in;
-    @Setter
-    private boolean running = true;
+    private final @NotNull BlockingQueue<@NotNull OutgoingFrame> queue;
+    private volatile @Nullable String identifier;
+    private volatile boolean ignoringIncomingState;
+    private volatile boolean running = true;
+    private volatile @Nullable Connection connection;
+    private @Nullable Thread writerThread;
 
     public SocketMessenger(@NotNull String server, int port, @Nullable String identifier, @NotNull Consumer<byte @NotNull []> packetHandler, @NotNull Consumer<@NotNull Runnable> threadCreator) {
+        this(server, port, identifier, packetHandler, threadCreator, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public SocketMessenger(@NotNull String server, int port, @Nullable String identifier, @NotNull Consumer<byte @NotNull []> packetHandler, @NotNull Consumer<@NotNull Runnable> threadCreator, int queueCapacity) {
         this.server = server;
         this.port = port;
         this.identifier = identifier;
         this.packetHandler = packetHandler;
         this.threadCreator = threadCreator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
     }
 
-    public void startConnection() throws IOException {
-        //noinspection resource
-        ensureConnection();
+    /**
+     * Starts the writer thread, which connects as soon as the server name is known.
+     */
+    public synchronized void startConnection() {
+        if (writerThread != null || !running) {
+            return;
+        }
+
+        writerThread = new Thread(this::writeLoop, "BedWars Socket Messenger Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
     }
 
-    private @NotNull DataOutputStream ensureConnection() throws IOException {
-        if (clientSocket != null && clientSocket.isConnected() && !clientSocket.isClosed()) {
-            if (out != null) {
-                return out;
+    /**
+     * Stops the writer thread and closes the connection. Frames still queued are failed.
+     */
+    public void close() {
+        running = false;
+        synchronized (this) {
+            if (writerThread != null) {
+                writerThread.interrupt();
+                writerThread = null;
             }
-            stopConnection();
         }
+        closeConnection();
 
-        if (identifier == null) {
-            throw new IllegalArgumentException(
-                    "Cannot start communication if the server name is unknown! Connect any player to this server, so it can fetch its identifier"
-            );
+        var error = new IOException("Socket messenger has been closed");
+        OutgoingFrame frame;
+        while ((frame = queue.poll()) != null) {
+            frame.future.completeExceptionally(error);
         }
+    }
 
-        clientSocket = new Socket(server, port);
-        out = new DataOutputStream(clientSocket.getOutputStream());
-        in = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
-
-        // Kind of Handshake
-        PacketUtils.writeStandardUTF(out, identifier);
-        out.flush();
-
-        running = true;
-        threadCreator.accept(() -> {
-            try {
-                while (running && clientSocket.isConnected() && !clientSocket.isClosed()) {
-                    try {
-                        var size = in.readInt();
-                        packetHandler.accept(in.readNBytes(size));
-                    } catch (EOFException e) {
-                        throw new RuntimeException(e);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-            } finally {
-                try {
-                    stopConnection();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        return out;
+    @Override
+    public void sendPacket(@NotNull String server, byte @NotNull [] payload) throws IOException {
+        checkQueued(sendPacketAsync(server, payload));
     }
 
-    private void stopConnection() throws IOException {
-        running = false;
-        if (out != null) {
-            out.close();
-            out = null;
-        }
-        if (in != null) {
-            in.close();
-            in = null;
-        }
-        if (clientSocket != null) {
-            clientSocket.close();
-            clientSocket = null;
-        }
+    @Override
+    public void broadcastPacket(byte @NotNull [] payload) throws IOException {
+        checkQueued(broadcastPacketAsync(payload));
     }
 
     @Override
-    public synchronized void sendPacket(@NotNull String server, byte @NotNull [] payload) throws IOException {
-        var out = ensureConnection();
-        out.writeByte(Action.SEND_PACKET.getId());
-        PacketUtils.writeStandardUTF(out, server);
-        out.writeInt(payload.length);
-        out.write(payload);
-        out.flush();
+    public @NotNull CompletableFuture<Void> sendPacketAsync(@NotNull String server, byte @NotNull [] payload) {
+        var frame = new ByteArrayOutputStream(payload.length + server.length() + 8);
+        var out = new DataOutputStream(frame);
+        try {
+            out.writeByte(Action.SEND_PACKET.getId());
+            PacketUtils.writeStandardUTF(out, server);
+            out.writeInt(payload.length);
+            out.write(payload);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return enqueue(frame.toByteArray());
     }
 
     @Override
-    public synchronized void broadcastPacket(byte @NotNull [] payload) throws IOException {
-        var out = ensureConnection();
-        out.writeByte(Action.BROADCAST_PACKET.getId());
-        out.writeInt(payload.length);
-        out.write(payload);
-        out.flush();
+    public @NotNull CompletableFuture<Void> broadcastPacketAsync(byte @NotNull [] payload) {
+        var frame = new byte[1 + Integer.BYTES + payload.length];
+        frame[0] = Action.BROADCAST_PACKET.getId();
+        frame[1] = (byte) (payload.length >>> 24);
+        frame[2] = (byte) (payload.length >>> 16);
+        frame[3] = (byte) (payload.length >>> 8);
+        frame[4] = (byte) payload.length;
+        System.arraycopy(payload, 0, frame, 1 + Integer.BYTES, payload.length);
+        return enqueue(frame);
     }
 
     @Override
@@ -147,39 +153,172 @@ public final class SocketMessenger implements ServerNameAwareMessenger, IgnoreCa
         }
 
         identifier = serverName;
-        if (clientSocket != null) {
+        // the writer reconnects and introduces itself with the new name
+        closeConnection();
+        startConnection();
+    }
+
+    @Override
+    public void ignoreIncomingState() {
+        ignoringIncomingState = true;
+        enqueue(new byte[] {Action.IGNORE_INCOMING_GAME_STATE.getId()});
+    }
+
+    @Override
+    public void stopIgnoreIncomingState() {
+        ignoringIncomingState = false;
+        enqueue(new byte[] {Action.STOP_IGNORING_INCOMING_GAME_STATE.getId()});
+    }
+
+    private @NotNull CompletableFuture<Void> enqueue(byte @NotNull [] frame) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IOException("Socket messenger has been closed"));
+        }
+
+        var outgoing = new OutgoingFrame(frame, new CompletableFuture<>());
+        if (!queue.offer(outgoing)) {
+            return CompletableFuture.failedFuture(new IOException("Outgoing queue of the socket messenger is full, is the relay reachable?"));
+        }
+        startConnection();
+        return outgoing.future;
+    }
+
+    private void checkQueued(@NotNull CompletableFuture<Void> future) throws IOException {
+        // only failures which happen right away are reported, the rest is up to the writer thread
+        if (future.isCompletedExceptionally()) {
             try {
-                stopConnection();
-            } catch (IOException e) {
-                e.printStackTrace();
+                future.join();
+            } catch (Exception e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
             }
+        }
+    }
+
+    private void writeLoop() {
+        var reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+        var pending = new ArrayDeque<OutgoingFrame>(); // taken from the queue, but not written yet
+        var written = new ArrayList<OutgoingFrame>();
+
+        while (running) {
             try {
-                ensureConnection();
-            } catch (IOException e) {
-                e.printStackTrace();
+                var connection = this.connection;
+                if (connection == null || connection.closed) {
+                    var identifier = this.identifier;
+                    if (identifier == null) {
+                        // cannot introduce ourselves yet, setServerName closes and restarts us
+                        Thread.sleep(1000);
+                        continue;
+                    }
+
+                    try {
+                        connection = connect(identifier);
+                        reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+                    } catch (IOException e) {
+                        Thread.sleep(reconnectDelay);
+                        reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+                        continue;
+                    }
+                }
+
+                if (pending.isEmpty()) {
+                    var frame = queue.poll(1, TimeUnit.SECONDS);
+                    if (frame == null) {
+                        continue; // check the connection again
+                    }
+                    pending.add(frame);
+                    queue.drainTo(pending, MAX_FRAMES_PER_FLUSH - 1);
+                }
+
+                try {
+                    for (var frame : pending) {
+                        connection.out.write(frame.frame);
+                        written.add(frame);
+                    }
+                    connection.out.flush();
+                } catch (IOException e) {
+                    // nothing can tell how much the relay got, write the whole batch again after reconnecting
+                    written.clear();
+                    connection.close();
+                    continue;
+                }
+
+                pending.clear();
+                written.forEach(frame -> frame.future.complete(null));
+                written.clear();
+            } catch (InterruptedException e) {
+                break;
             }
         }
+
+        var error = new IOException("Socket messenger has been closed");
+        pending.forEach(frame -> frame.future.completeExceptionally(error));
     }
 
-    @Override
-    public void ignoreIncomingState() {
+    private @NotNull Connection connect(@NotNull String identifier) throws IOException {
+        var socket = new Socket();
         try {
-            var out = ensureConnection();
-            out.writeByte(Action.IGNORE_INCOMING_GAME_STATE.getId());
-            out.flush();
+            socket.connect(new InetSocketAddress(server, port), CONNECT_TIMEOUT_MILLIS);
+            var connection = new Connection(
+                    socket,
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())),
+                    new DataInputStream(new BufferedInputStream(socket.getInputStream()))
+            );
+
+            // Kind of Handshake, replayed on every reconnect together with the relay-side state
+            PacketUtils.writeStandardUTF(connection.out, identifier);
+            if (ignoringIncomingState) {
+                connection.out.writeByte(Action.IGNORE_INCOMING_GAME_STATE.getId());
+            }
+            connection.out.flush();
+
+            this.connection = connection;
+            threadCreator.accept(() -> readLoop(connection));
+            return connection;
         } catch (IOException e) {
-            e.printStackTrace();
+            socket.close();
+            throw e;
         }
     }
 
-    @Override
-    public void stopIgnoreIncomingState() {
+    private void readLoop(@NotNull Connection connection) {
         try {
-            var out = ensureConnection();
-            out.writeByte(Action.STOP_IGNORING_INCOMING_GAME_STATE.getId());
-            out.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+            while (running && !connection.closed) {
+                var size = connection.in.readInt();
+                packetHandler.accept(connection.in.readNBytes(size));
+            }
+        } catch (IOException ignored) {
+            // the writer thread notices the closed connection and reconnects
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void closeConnection() {
+        var connection = this.connection;
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class OutgoingFrame {
+        private final byte @NotNull [] frame;
+        private final @NotNull CompletableFuture<Void> future;
+    }
+
+    @RequiredArgsConstructor
+    private static class Connection {
+        private final @NotNull Socket socket;
+        private final @NotNull DataOutputStream out;
+        private final @NotNull DataInputStream in;
+        private volatile boolean closed;
+
+        private void close() {
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
         }
     }
 }
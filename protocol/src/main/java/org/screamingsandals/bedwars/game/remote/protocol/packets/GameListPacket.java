@@ -41,7 +41,7 @@ public class GameListPacket implements Packet {
 
     public GameListPacket(@NotNull DataInputStream dataInputStream) throws IOException {
         server = PacketUtils.readStandardUTF(dataInputStream);
-        int size = dataInputStream.readInt();
+        int size = PacketUtils.readInt(dataInputStream);
         games = new ArrayList<>(size);
         for (int i = 0; i < size; i++) {
             var uuid = PacketUtils.readUuid(dataInputStream);
@@ -59,7 +59,7 @@ public class GameListPacket implements Packet {
     @Override
     public void write(@NotNull DataOutputStream dataOutputStream) throws IOException {
         PacketUtils.writeStandardUTF(dataOutputStream, server);
-        dataOutputStream.writeInt(games.size());
+        PacketUtils.writeInt(dataOutputStream, games.size());
         for (var game : games) {
             PacketUtils.writeUuid(dataOutputStream, game.getUuid());
             PacketUtils.writeStandardUTF(dataOutputStream, game.getName());
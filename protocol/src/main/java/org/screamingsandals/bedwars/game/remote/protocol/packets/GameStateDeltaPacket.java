@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol.packets;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Changes of a {@link GameStatePacket} since the previous packet of the same stream.
+ * <p>
+ * Packets of one game are numbered by {@code sequence}, which starts over in every {@code epoch} (picked by the sender
+ * whenever it starts publishing the game, so a restarted server begins a new one). A keyframe carries the whole state, any other packet only the fields flagged in
+ * {@code changedFields} and the players who joined or left. A receiver which misses a sequence number cannot apply the
+ * following packets and should send a {@link GameStateResyncRequestPacket}.
+ */
+@Getter
+public class GameStateDeltaPacket implements Packet {
+    public static final int FORMAT_VERSION = 2;
+
+    public static final int NAME = 1;
+    public static final int DISPLAY_NAME = 1 << 1;
+    public static final int ONLINE_PLAYERS = 1 << 2;
+    public static final int ALIVE_PLAYERS = 1 << 3;
+    public static final int MIN_PLAYERS = 1 << 4;
+    public static final int MAX_PLAYERS = 1 << 5;
+    public static final int TEAMS = 1 << 6;
+    public static final int ALIVE_TEAMS = 1 << 7;
+    public static final int STATE = 1 << 8;
+    public static final int TIMING = 1 << 9; // elapsed, max time, time moving and the time they were measured at
+    public static final int PLAYERS = 1 << 10;
+    public static final int ALL_FIELDS = (1 << 11) - 1;
+
+    private final @NotNull String server;
+    private final @NotNull UUID uuid;
+    private final long epoch;
+    private final int sequence;
+    private final boolean keyframe;
+    private int changedFields;
+    private @Nullable String name;
+    private @Nullable String displayName;
+    private int onlinePlayers;
+    private int alivePlayers;
+    private int minPlayers;
+    private int maxPlayers;
+    private int teams;
+    private int aliveTeams;
+    private @Nullable String state;
+    private int elapsed;
+    private @Nullable Integer maxTime;
+    private boolean timeMoving;
+    private long timingMillis;
+    private final @NotNull List<GameStatePacket.@NotNull PlayerEntry> joinedPlayers = new ArrayList<>();
+    private final @NotNull List<@NotNull UUID> leftPlayers = new ArrayList<>();
+
+    private GameStateDeltaPacket(@NotNull String server, @NotNull UUID uuid, long epoch, int sequence, boolean keyframe) {
+        this.server = server;
+        this.uuid = uuid;
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.keyframe = keyframe;
+    }
+
+    /**
+     * @param previous state the receivers already have, or null for a keyframe
+     * @param timingChanged whether the timing has to be sent even though the receivers could extrapolate it
+     * @param timingMillis when the elapsed time of {@code current} was measured
+     * @return the delta, or null if there is nothing to send
+     */
+    public static @Nullable GameStateDeltaPacket between(long epoch, int sequence, @Nullable GameStatePacket previous, @NotNull GameStatePacket current, boolean timingChanged, long timingMillis) {
+        var packet = new GameStateDeltaPacket(current.getServer(), current.getUuid(), epoch, sequence, previous == null);
+        var fields = previous == null ? ALL_FIELDS : 0;
+        if (previous != null) {
+            if (!previous.getName().equals(current.getName())) {
+                fields |= NAME;
+            }
+            if (!Objects.equals(previous.getDisplayName(), current.getDisplayName())) {
+                fields |= DISPLAY_NAME;
+            }
+            if (previous.getOnlinePlayers() != current.getOnlinePlayers()) {
+                fields |= ONLINE_PLAYERS;
+            }
+            if (previous.getAlivePlayers() != current.getAlivePlayers()) {
+                fields |= ALIVE_PLAYERS;
+            }
+            if (previous.getMinPlayers() != current.getMinPlayers()) {
+                fields |= MIN_PLAYERS;
+            }
+            if (previous.getMaxPlayers() != current.getMaxPlayers()) {
+                fields |= MAX_PLAYERS;
+            }
+            if (previous.getTeams() != current.getTeams()) {
+                fields |= TEAMS;
+            }
+            if (previous.getAliveTeams() != current.getAliveTeams()) {
+                fields |= ALIVE_TEAMS;
+            }
+            if (!previous.getState().equals(current.getState())) {
+                fields |= STATE;
+            }
+            if (timingChanged) {
+                fields |= TIMING;
+            }
+        }
+
+        packet.name = current.getName();
+        packet.displayName = current.getDisplayName();
+        packet.onlinePlayers = current.getOnlinePlayers();
+        packet.alivePlayers = current.getAlivePlayers();
+        packet.minPlayers = current.getMinPlayers();
+        packet.maxPlayers = current.getMaxPlayers();
+        packet.teams = current.getTeams();
+        packet.aliveTeams = current.getAliveTeams();
+        packet.state = current.getState();
+        packet.elapsed = current.getElapsed();
+        packet.maxTime = current.getMaxTime();
+        packet.timeMoving = current.isTimeMoving();
+        packet.timingMillis = timingMillis;
+
+        if (previous == null) {
+            packet.joinedPlayers.addAll(current.getPlayers());
+        } else {
+            var before = new HashMap<UUID, String>();
+            for (var player : previous.getPlayers()) {
+                before.put(player.getUuid(), player.getName());
+            }
+            for (var player : current.getPlayers()) {
+                var name = before.remove(player.getUuid());
+                if (name == null) {
+                    packet.joinedPlayers.add(player);
+                } else if (!name.equals(player.getName())) {
+                    packet.leftPlayers.add(player.getUuid());
+                    packet.joinedPlayers.add(player);
+                }
+            }
+            packet.leftPlayers.addAll(before.keySet());
+            if (!packet.joinedPlayers.isEmpty() || !packet.leftPlayers.isEmpty()) {
+                fields |= PLAYERS;
+            }
+        }
+
+        if (fields == 0) {
+            return null;
+        }
+        packet.changedFields = fields;
+        return packet;
+    }
+
+    public GameStateDeltaPacket(@NotNull DataInputStream dataInputStream) throws IOException {
+        var version = dataInputStream.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported game state delta format " + version);
+        }
+        server = PacketUtils.readStandardUTF(dataInputStream);
+        uuid = PacketUtils.readUuid(dataInputStream);
+        epoch = PacketUtils.readLong(dataInputStream);
+        sequence = PacketUtils.readInt(dataInputStream);
+        keyframe = dataInputStream.readBoolean();
+        changedFields = PacketUtils.readInt(dataInputStream);
+
+        if (has(NAME)) {
+            name = PacketUtils.readStandardUTF(dataInputStream);
+        }
+        if (has(DISPLAY_NAME) && dataInputStream.readBoolean()) {
+            displayName = PacketUtils.readStandardUTF(dataInputStream);
+        }
+        if (has(ONLINE_PLAYERS)) {
+            onlinePlayers = PacketUtils.readInt(dataInputStream);
+        }
+        if (has(ALIVE_PLAYERS)) {
+            alivePlayers = PacketUtils.readInt(dataInputStream);
+        }
+        if (has(MIN_PLAYERS)) {
+            minPlayers = PacketUtils.readInt(dataInputStream);
+        }
+        if (has(MAX_PLAYERS)) {
+            maxPlayers = PacketUtils.readInt(dataInputStream);
+        }
+        if (has(TEAMS)) {
+            teams = PacketUtils.readInt(dataInputStream);
+        }
+        if (has(ALIVE_TEAMS)) {
+            aliveTeams = PacketUtils.readInt(dataInputStream);
+        }
+        if (has(STATE)) {
+            state = PacketUtils.readStandardUTF(dataInputStream);
+        }
+        if (has(TIMING)) {
+            elapsed = PacketUtils.readInt(dataInputStream);
+            if (dataInputStream.readBoolean()) {
+                maxTime = PacketUtils.readInt(dataInputStream);
+            }
+            timeMoving = dataInputStream.readBoolean();
+            // sent as age, so the receiver does not depend on the clocks being in sync
+            timingMillis = System.currentTimeMillis() - PacketUtils.readLong(dataInputStream);
+        }
+        if (has(PLAYERS)) {
+            int joined = PacketUtils.readInt(dataInputStream);
+            for (int i = 0; i < joined; i++) {
+                var playerUuid = PacketUtils.readUuid(dataInputStream);
+                var playerName = PacketUtils.readStandardUTF(dataInputStream);
+                joinedPlayers.add(new GameStatePacket.PlayerEntry(playerUuid, playerName));
+            }
+            int left = PacketUtils.readInt(dataInputStream);
+            for (int i = 0; i < left; i++) {
+                leftPlayers.add(PacketUtils.readUuid(dataInputStream));
+            }
+        }
+    }
+
+    @Override
+    public void write(@NotNull DataOutputStream dataOutputStream) throws IOException {
+        dataOutputStream.writeByte(FORMAT_VERSION);
+        PacketUtils.writeStandardUTF(dataOutputStream, server);
+        PacketUtils.writeUuid(dataOutputStream, uuid);
+        PacketUtils.writeLong(dataOutputStream, epoch);
+        PacketUtils.writeInt(dataOutputStream, sequence);
+        dataOutputStream.writeBoolean(keyframe);
+        PacketUtils.writeInt(dataOutputStream, changedFields);
+
+        if (has(NAME)) {
+            PacketUtils.writeStandardUTF(dataOutputStream, Objects.requireNonNull(name));
+        }
+        if (has(DISPLAY_NAME)) {
+            dataOutputStream.writeBoolean(displayName != null);
+            if (displayName != null) {
+                PacketUtils.writeStandardUTF(dataOutputStream, displayName);
+            }
+        }
+        if (has(ONLINE_PLAYERS)) {
+            PacketUtils.writeInt(dataOutputStream, onlinePlayers);
+        }
+        if (has(ALIVE_PLAYERS)) {
+            PacketUtils.writeInt(dataOutputStream, alivePlayers);
+        }
+        if (has(MIN_PLAYERS)) {
+            PacketUtils.writeInt(dataOutputStream, minPlayers);
+        }
+        if (has(MAX_PLAYERS)) {
+            PacketUtils.writeInt(dataOutputStream, maxPlayers);
+        }
+        if (has(TEAMS)) {
+            PacketUtils.writeInt(dataOutputStream, teams);
+        }
+        if (has(ALIVE_TEAMS)) {
+            PacketUtils.writeInt(dataOutputStream, aliveTeams);
+        }
+        if (has(STATE)) {
+            PacketUtils.writeStandardUTF(dataOutputStream, Objects.requireNonNull(state));
+        }
+        if (has(TIMING)) {
+            PacketUtils.writeInt(dataOutputStream, elapsed);
+            dataOutputStream.writeBoolean(maxTime != null);
+            if (maxTime != null) {
+                PacketUtils.writeInt(dataOutputStream, maxTime);
+            }
+            dataOutputStream.writeBoolean(timeMoving);
+            PacketUtils.writeLong(dataOutputStream, Math.max(0, System.currentTimeMillis() - timingMillis));
+        }
+        if (has(PLAYERS)) {
+            PacketUtils.writeInt(dataOutputStream, joinedPlayers.size());
+            for (var player : joinedPlayers) {
+                PacketUtils.writeUuid(dataOutputStream, player.getUuid());
+                PacketUtils.writeStandardUTF(dataOutputStream, player.getName());
+            }
+            PacketUtils.writeInt(dataOutputStream, leftPlayers.size());
+            for (var player : leftPlayers) {
+                PacketUtils.writeUuid(dataOutputStream, player);
+            }
+        }
+    }
+
+    public boolean has(int field) {
+        return (changedFields & field) != 0;
+    }
+
+    /**
+     * @param base the state this delta follows, ignored for keyframes
+     * @return the resulting full state
+     */
+    public @NotNull GameStatePacket applyTo(@Nullable GameStatePacket base) {
+        if (!keyframe && base == null) {
+            throw new IllegalStateException("A delta can only be applied on top of a previous state");
+        }
+        if (keyframe) {
+            base = null;
+        }
+
+        var players = new LinkedHashMap<UUID, GameStatePacket.PlayerEntry>();
+        if (base != null) {
+            for (var player : base.getPlayers()) {
+                players.put(player.getUuid(), player);
+            }
+        }
+        for (var player : leftPlayers) {
+            players.remove(player);
+        }
+        for (var player : joinedPlayers) {
+            players.put(player.getUuid(), player);
+        }
+
+        var timing = base == null || has(TIMING);
+        return new GameStatePacket(
+                server,
+                uuid,
+                has(NAME) || base == null ? Objects.requireNonNull(name) : base.getName(),
+                has(DISPLAY_NAME) || base == null ? displayName : base.getDisplayName(),
+                has(ONLINE_PLAYERS) || base == null ? onlinePlayers : base.getOnlinePlayers(),
+                has(ALIVE_PLAYERS) || base == null ? alivePlayers : base.getAlivePlayers(),
+                has(MIN_PLAYERS) || base == null ? minPlayers : base.getMinPlayers(),
+                has(MAX_PLAYERS) || base == null ? maxPlayers : base.getMaxPlayers(),
+                has(TEAMS) || base == null ? teams : base.getTeams(),
+                has(ALIVE_TEAMS) || base == null ? aliveTeams : base.getAliveTeams(),
+                has(STATE) || base == null ? Objects.requireNonNull(state) : base.getState(),
+                new ArrayList<>(players.values()),
+                timing ? elapsed : base.getElapsed(),
+                timing ? maxTime : base.getMaxTime(),
+                timing ? timeMoving : base.isTimeMoving(),
+                timing ? timingMillis : base.getGenerationTime()
+        );
+    }
+}
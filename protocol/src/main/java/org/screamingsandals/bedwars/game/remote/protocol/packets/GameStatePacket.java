@@ -67,28 +67,28 @@ public class GameStatePacket implements Packet {
         } else {
             displayName = null;
         }
-        onlinePlayers = dataInputStream.readInt();
-        alivePlayers = dataInputStream.readInt();
-        minPlayers = dataInputStream.readInt();
-        maxPlayers = dataInputStream.readInt();
-        teams = dataInputStream.readInt();
-        aliveTeams = dataInputStream.readInt();
+        onlinePlayers = PacketUtils.readInt(dataInputStream);
+        alivePlayers = PacketUtils.readInt(dataInputStream);
+        minPlayers = PacketUtils.readInt(dataInputStream);
+        maxPlayers = PacketUtils.readInt(dataInputStream);
+        teams = PacketUtils.readInt(dataInputStream);
+        aliveTeams = PacketUtils.readInt(dataInputStream);
         state = PacketUtils.readStandardUTF(dataInputStream);
-        int playersSize = dataInputStream.readInt();
+        int playersSize = PacketUtils.readInt(dataInputStream);
         players = new ArrayList<>();
         for (int i = 0; i < playersSize; i++) {
             var uuid = PacketUtils.readUuid(dataInputStream);
             var name = PacketUtils.readStandardUTF(dataInputStream);
             players.add(new PlayerEntry(uuid, name));
         }
-        elapsed = dataInputStream.readInt();
+        elapsed = PacketUtils.readInt(dataInputStream);
         if (dataInputStream.readBoolean()) {
-            maxTime = dataInputStream.readInt();
+            maxTime = PacketUtils.readInt(dataInputStream);
         } else {
             maxTime = null;
         }
         isTimeMoving = dataInputStream.readBoolean();
-        generationTime = dataInputStream.readLong();
+        generationTime = PacketUtils.readLong(dataInputStream);
     }
 
     @Override
@@ -100,25 +100,25 @@ public class GameStatePacket implements Packet {
         if (displayName != null) {
             PacketUtils.writeStandardUTF(dataOutputStream, displayName);
         }
-        dataOutputStream.writeInt(onlinePlayers);
-        dataOutputStream.writeInt(alivePlayers);
-        dataOutputStream.writeInt(minPlayers);
-        dataOutputStream.writeInt(maxPlayers);
-        dataOutputStream.writeInt(teams);
-        dataOutputStream.writeInt(aliveTeams);
+        PacketUtils.writeInt(dataOutputStream, onlinePlayers);
+        PacketUtils.writeInt(dataOutputStream, alivePlayers);
+        PacketUtils.writeInt(dataOutputStream, minPlayers);
+        PacketUtils.writeInt(dataOutputStream, maxPlayers);
+        PacketUtils.writeInt(dataOutputStream, teams);
+        PacketUtils.writeInt(dataOutputStream, aliveTeams);
         PacketUtils.writeStandardUTF(dataOutputStream, state);
-        dataOutputStream.writeInt(players.size());
+        PacketUtils.writeInt(dataOutputStream, players.size());
         for (var player : players) {
             PacketUtils.writeUuid(dataOutputStream, player.getUuid());
             PacketUtils.writeStandardUTF(dataOutputStream, player.getName());
         }
-        dataOutputStream.writeInt(elapsed);
+        PacketUtils.writeInt(dataOutputStream, elapsed);
         dataOutputStream.writeBoolean(maxTime != null);
         if (maxTime != null) {
-            dataOutputStream.writeInt(maxTime);
+            PacketUtils.writeInt(dataOutputStream, maxTime);
         }
         dataOutputStream.writeBoolean(isTimeMoving);
-        dataOutputStream.writeLong(System.currentTimeMillis());
+        PacketUtils.writeLong(dataOutputStream, System.currentTimeMillis());
     }
 
     @Data
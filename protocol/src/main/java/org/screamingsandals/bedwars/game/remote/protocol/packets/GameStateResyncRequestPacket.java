@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol.packets;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketUtils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Asks the server owning the game for a {@link GameStateDeltaPacket} keyframe, e.g. after a sequence gap.
+ */
+@RequiredArgsConstructor
+@Getter
+public class GameStateResyncRequestPacket implements Packet {
+    private final @NotNull String requestingServer;
+    private final @NotNull UUID gameUuid;
+
+    public GameStateResyncRequestPacket(@NotNull DataInputStream dataInputStream) throws IOException {
+        requestingServer = PacketUtils.readStandardUTF(dataInputStream);
+        gameUuid = PacketUtils.readUuid(dataInputStream);
+    }
+
+    @Override
+    public void write(@NotNull DataOutputStream dataOutputStream) throws IOException {
+        PacketUtils.writeStandardUTF(dataOutputStream, requestingServer);
+        PacketUtils.writeUuid(dataOutputStream, gameUuid);
+    }
+}
@@ -32,13 +32,29 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class HelloPacket implements Packet {
     private final @NotNull String serverName;
+    // optional trailer, older servers neither send nor read it
+    private final int supportedCodecs;
+    private final boolean reply;
+
+    public HelloPacket(@NotNull String serverName) {
+        this(serverName, 0, false);
+    }
 
     public HelloPacket(@NotNull DataInputStream in) throws IOException {
         this.serverName = PacketUtils.readStandardUTF(in);
+        if (in.available() > 0) {
+            this.supportedCodecs = in.readInt();
+            this.reply = in.readBoolean();
+        } else {
+            this.supportedCodecs = 0;
+            this.reply = false;
+        }
     }
 
     @Override
     public void write(@NotNull DataOutputStream out) throws IOException {
         PacketUtils.writeStandardUTF(out, serverName);
+        out.writeInt(supportedCodecs);
+        out.writeBoolean(reply);
     }
 }
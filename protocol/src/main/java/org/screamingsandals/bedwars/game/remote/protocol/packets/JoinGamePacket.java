@@ -67,7 +67,7 @@ public class JoinGamePacket implements Packet {
         }
         if (dataInputStream.readBoolean()) {
             partyMembers = new ArrayList<>();
-            var size = dataInputStream.readInt();
+            var size = PacketUtils.readInt(dataInputStream);
             for (int i = 0; i < size; i++) {
                 partyMembers.add(PacketUtils.readUuid(dataInputStream));
             }
@@ -101,7 +101,7 @@ public class JoinGamePacket implements Packet {
         }
         dataOutputStream.writeBoolean(partyMembers != null);
         if (partyMembers != null) {
-            dataOutputStream.writeInt(partyMembers.size());
+            PacketUtils.writeInt(dataOutputStream, partyMembers.size());
             for (var uuid : partyMembers) {
                 PacketUtils.writeUuid(dataOutputStream, uuid);
             }
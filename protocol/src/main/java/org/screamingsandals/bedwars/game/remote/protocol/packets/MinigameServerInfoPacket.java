@@ -45,7 +45,7 @@ public class MinigameServerInfoPacket implements Packet {
         server = PacketUtils.readStandardUTF(dataInputStream);
         plugin = PacketUtils.readStandardUTF(dataInputStream);
         version = PacketUtils.readStandardUTF(dataInputStream);
-        protocolVersion = dataInputStream.readInt();
+        protocolVersion = PacketUtils.readInt(dataInputStream);
     }
 
     @Override
@@ -53,6 +53,6 @@ public class MinigameServerInfoPacket implements Packet {
         PacketUtils.writeStandardUTF(dataOutputStream, server);
         PacketUtils.writeStandardUTF(dataOutputStream, plugin);
         PacketUtils.writeStandardUTF(dataOutputStream, version);
-        dataOutputStream.writeInt(protocolVersion);
+        PacketUtils.writeInt(dataOutputStream, protocolVersion);
     }
 }
@@ -32,7 +32,7 @@ public enum Action {
     private static final @NotNull Action @NotNull [] VALUES = values();
 
     public static @Nullable Action byId(byte id) {
-        if (id < 0 || id > VALUES.length) {
+        if (id < 0 || id >= VALUES.length) {
             return null;
         }
 
@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2024 ScreamingSandals
+ *
+ * This file is part of Screaming BedWars.
+ *
+ * Screaming BedWars is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Screaming BedWars is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Screaming BedWars. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.screamingsandals.bedwars.game.remote.protocol.sockets;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.screamingsandals.bedwars.game.remote.protocol.PacketId;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Relay speaking the same protocol as {@link SimpleSocketServer}, but serving all clients from one selector thread.
+ * <p>
+ * Every client has its own write queue, so a slow client only delays itself. A client whose queue grows over
+ * {@code maxQueuedBytes} is disconnected, and reading from a client stops while its own queue is more than half full.
+ */
+public final class SelectorSocketServer {
+    public static final int DEFAULT_MAX_QUEUED_BYTES = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_FRAME_SIZE = 8 * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_GATHERED_FRAMES = 64;
+
+    private final @NotNull Selector selector;
+    private final @NotNull ServerSocketChannel serverChannel;
+    private final int maxQueuedBytes;
+    private final int maxFrameSize;
+    private final @NotNull Map<@NotNull String, ClientConnection> clients = new HashMap<>();
+    // reused by every gathering write, only the selector thread touches it
+    private final @NotNull ByteBuffer @NotNull [] gatherBuffers = new ByteBuffer[MAX_GATHERED_FRAMES];
+    private volatile boolean running = true;
+
+    public SelectorSocketServer(int port) throws IOException {
+        this(port, DEFAULT_MAX_QUEUED_BYTES, DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    public SelectorSocketServer(int port, int maxQueuedBytes, int maxFrameSize) throws IOException {
+        this.maxQueuedBytes = maxQueuedBytes;
+        this.maxFrameSize = maxFrameSize;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public void run() throws IOException {
+        System.out.println("Server started on port " + serverChannel.socket().getLocalPort() + " (non-blocking relay)");
+        try (selector; serverChannel) {
+            while (running) {
+                selector.select();
+                var iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    var key = iterator.next();
+                    iterator.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    var client = (ClientConnection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            client.flush();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            client.read();
+                        }
+                    } catch (IOException e) {
+                        client.close();
+                    }
+                }
+            }
+        } catch (ClosedSelectorException ignored) {
+            // shut down
+        } finally {
+            for (var client : clients.values().toArray(ClientConnection[]::new)) {
+                client.close();
+            }
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            System.out.println("New connection from " + channel.getRemoteAddress());
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            var client = new ClientConnection(channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+        }
+    }
+
+    private void relay(@Nullable ClientConnection target, @NotNull ByteBuffer payload) {
+        var isIncomingState = PacketId.isGameState(Byte.toUnsignedInt(payload.get(payload.position())));
+
+        // framed once, every client only gets its own position and limit over the same memory;
+        // a heap buffer, direct buffers are too expensive to allocate per message
+        var frame = ByteBuffer.allocate(Integer.BYTES + payload.remaining());
+        frame.putInt(payload.remaining()).put(payload).flip();
+        frame = frame.asReadOnlyBuffer();
+
+        if (target != null) {
+            if (!isIncomingState || !target.ignoresIncomingState) {
+                target.enqueue(frame);
+            }
+            return;
+        }
+
+        for (var client : clients.values().toArray(ClientConnection[]::new)) {
+            if (client.open && !(isIncomingState && client.ignoresIncomingState)) {
+                client.enqueue(frame.duplicate());
+            }
+        }
+    }
+
+    private final class ClientConnection {
+        private final @NotNull SocketChannel channel;
+        private @Nullable SelectionKey key;
+        private @Nullable String identifier;
+        private @NotNull ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final @NotNull ArrayDeque<@NotNull ByteBuffer> writeQueue = new ArrayDeque<>();
+        private long queuedBytes;
+        private boolean ignoresIncomingState;
+        private boolean open = true;
+
+        private ClientConnection(@NotNull SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            while (open && parse()) {
+                // handle everything which is already buffered
+            }
+            if (!open) {
+                return;
+            }
+            readBuffer.compact();
+
+            if (!readBuffer.hasRemaining()) {
+                // a single message does not fit, its header (at most 64 KiB) and payload have to fit the frame limit
+                var limit = maxFrameSize + 2 * READ_BUFFER_SIZE;
+                if (readBuffer.capacity() >= limit) {
+                    System.out.println("Client " + identifier + " sent an oversized message. Kicking...");
+                    close();
+                    return;
+                }
+                var grown = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, limit));
+                readBuffer.flip();
+                grown.put(readBuffer);
+                readBuffer = grown;
+            }
+        }
+
+        /**
+         * Handles one message from the read buffer.
+         *
+         * @return false if the buffer does not contain a whole message yet
+         */
+        private boolean parse() {
+            var start = readBuffer.position();
+
+            if (identifier == null) {
+                var name = readString();
+                if (name == null) {
+                    readBuffer.position(start);
+                    return false;
+                }
+                login(name);
+                return true;
+            }
+
+            if (!readBuffer.hasRemaining()) {
+                return false;
+            }
+
+            var action = Action.byId(readBuffer.get());
+            if (action == null) {
+                System.out.println("Received invalid action from " + identifier + ". Kicking...");
+                close();
+                return false;
+            }
+
+            switch (action) {
+                case IGNORE_INCOMING_GAME_STATE:
+                    ignoresIncomingState = true;
+                    return true;
+                case STOP_IGNORING_INCOMING_GAME_STATE:
+                    ignoresIncomingState = false;
+                    return true;
+            }
+
+            String targetName = null;
+            if (action == Action.SEND_PACKET) {
+                targetName = readString();
+                if (targetName == null) {
+                    readBuffer.position(start);
+                    return false;
+                }
+            }
+
+            if (readBuffer.remaining() < Integer.BYTES) {
+                readBuffer.position(start);
+                return false;
+            }
+            var size = readBuffer.getInt();
+            if (size < 0 || size > maxFrameSize) {
+                System.out.println("Client " + identifier + " sent a packet of " + size + " bytes. Kicking...");
+                close();
+                return false;
+            }
+            if (readBuffer.remaining() < size) {
+                readBuffer.position(start);
+                return false;
+            }
+
+            var payload = readBuffer.slice();
+            payload.limit(size);
+            readBuffer.position(readBuffer.position() + size);
+
+            if (size == 0) {
+                return true;
+            }
+
+            if (targetName != null) {
+                var target = clients.get(targetName);
+                if (target != null && target.open) {
+                    relay(target, payload);
+                }
+            } else {
+                relay(null, payload);
+            }
+            return true;
+        }
+
+        private @Nullable String readString() {
+            if (readBuffer.remaining() < Short.BYTES) {
+                return null;
+            }
+            var length = Short.toUnsignedInt(readBuffer.getShort());
+            if (readBuffer.remaining() < length) {
+                return null;
+            }
+            var bytes = new byte[length];
+            readBuffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void login(@NotNull String name) {
+            var existing = clients.get(name);
+            if (existing != null && existing.open) {
+                System.out.println("New client used the same identifier as another client which is still online: " + name);
+                close();
+                return;
+            }
+            identifier = name;
+            clients.put(name, this);
+            System.out.println("Client logged in: " + name);
+        }
+
+        private void enqueue(@NotNull ByteBuffer frame) {
+            if (queuedBytes + frame.remaining() > maxQueuedBytes) {
+                System.out.println("Client " + identifier + " is not reading fast enough (" + queuedBytes + " bytes queued). Kicking...");
+                close();
+                return;
+            }
+
+            var wasEmpty = writeQueue.isEmpty();
+            writeQueue.add(frame);
+            queuedBytes += frame.remaining();
+            if (wasEmpty) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    close();
+                }
+            } else {
+                updateInterest();
+            }
+        }
+
+        private void flush() throws IOException {
+            while (!writeQueue.isEmpty()) {
+                var count = 0;
+                for (var frame : writeQueue) {
+                    gatherBuffers[count++] = frame;
+                    if (count == gatherBuffers.length) {
+                        break;
+                    }
+                }
+                var written = channel.write(gatherBuffers, 0, count);
+                Arrays.fill(gatherBuffers, 0, count, null);
+                queuedBytes -= written;
+
+                while (!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining()) {
+                    writeQueue.poll();
+                }
+                if (!writeQueue.isEmpty() && writeQueue.peek().position() > 0 || written == 0) {
+                    // the socket buffer is full
+                    break;
+                }
+            }
+            updateInterest();
+        }
+
+        private void updateInterest() {
+            if (key == null || !key.isValid()) {
+                return;
+            }
+            var ops = 0;
+            if (queuedBytes <= maxQueuedBytes / 2) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!writeQueue.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        private void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            writeQueue.clear();
+            queuedBytes = 0;
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            if (identifier != null) {
+                clients.remove(identifier, this);
+            }
+            System.out.println("Client " + identifier + " disconnected");
+        }
+    }
+}
@@ -31,16 +31,15 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class SimpleSocketServer {
     private boolean running = true;
     private final @NotNull Map<@NotNull String, ClientConnection> clients = new ConcurrentHashMap<>();
-    private final @NotNull List<@NotNull String> ignoresIncomingState = Collections.synchronizedList(new ArrayList<>());
+    private final @NotNull Set<@NotNull String> ignoresIncomingState = ConcurrentHashMap.newKeySet();
 
     public SimpleSocketServer(int port) throws IOException {
         try (var serverSocket = new ServerSocket(port)) {
@@ -92,9 +91,7 @@ public final class SimpleSocketServer {
                     }
 
                     if (action == Action.IGNORE_INCOMING_GAME_STATE) {
-                        if (!ignoresIncomingState.contains(identifier)) {
-                            ignoresIncomingState.add(identifier);
-                        }
+                        ignoresIncomingState.add(identifier);
                         continue;
                     } else if (action == Action.STOP_IGNORING_INCOMING_GAME_STATE) {
                         ignoresIncomingState.remove(identifier);
@@ -115,22 +112,28 @@ public final class SimpleSocketServer {
                         continue;
                     }
 
-                    var payload = in.readNBytes(size);
-                    var isIncomingState = Byte.toUnsignedInt(payload[0]) == PacketId.GAME_STATE.getId();
+                    // the payload is read straight behind its length, so all clients get the same frame with one write
+                    var frame = new byte[Integer.BYTES + size];
+                    frame[0] = (byte) (size >>> 24);
+                    frame[1] = (byte) (size >>> 16);
+                    frame[2] = (byte) (size >>> 8);
+                    frame[3] = (byte) size;
+                    in.readFully(frame, Integer.BYTES, size);
+                    var isIncomingState = PacketId.isGameState(Byte.toUnsignedInt(frame[Integer.BYTES]));
 
                     if (client != null) {
                         if (isIncomingState && ignoresIncomingState.contains(client.identifier)) {
                             continue;
                         }
 
-                        client.sendPacket(payload);
+                        client.sendFrame(frame);
                     } else {
                         for (var c : clients.values()) {
                             if (c.socket.isClosed() || (isIncomingState && ignoresIncomingState.contains(c.identifier))) {
                                 continue;
                             }
 
-                            c.sendPacket(payload);
+                            c.sendFrame(frame);
                         }
                     }
 
@@ -151,11 +154,19 @@ public final class SimpleSocketServer {
             out.write(payload);
             out.flush();
         }
+
+        /**
+         * @param frame payload already prefixed with its length
+         */
+        public synchronized void sendFrame(byte @NotNull [] frame) throws IOException {
+            out.write(frame);
+            out.flush();
+        }
     }
 
     public static void main(@NotNull String @NotNull [] args) throws IOException {
         if (args.length < 1) {
-            System.out.println("Usage: <port>");
+            System.out.println("Usage: <port> [threaded|nio]");
             return;
         }
 
@@ -172,6 +183,16 @@ public final class SimpleSocketServer {
             return;
         }
 
-        new SimpleSocketServer(port);
+        var mode = args.length > 1 ? args[1].toLowerCase(Locale.ROOT) : "threaded";
+        switch (mode) {
+            case "threaded":
+                new SimpleSocketServer(port);
+                break;
+            case "nio":
+                new SelectorSocketServer(port).run();
+                break;
+            default:
+                System.out.println("Unknown mode " + mode + ", expected threaded or nio");
+        }
     }
 }